@@ -0,0 +1,199 @@
+package players;
+
+/**
+ * Depth-limited principal-variation search over one BitBoard (make/unmake, no copies),
+ * with the position values supplied by an Evaluator. Positions are cached in a
+ * transposition table that several instances may share, one instance per thread.
+ * Moves are tried in the order of the evaluator's move scores, sorted in place in
+ * MoveOrdering's buffers, so a node allocates nothing.
+ *
+ * Every node takes its best child. The first child is searched with the node's window;
+ * the others only with a null window just above the best value so far, which cuts off
+ * as soon as some line below them beats it. A child that beats it is searched again
+ * with the full window for its value. The move that cut off a null-window search is
+ * kept as the killer of its depth and tried first in the next node at that depth.
+ */
+final class AlphaBetaSearch {
+    final BitBoard state;
+    final SearchClock clock;
+    // Nodes, table probes and depth of this instance's searches
+    final SearchStats stats = new SearchStats();
+    // Result of the last iterativeDeepening call. completedDepth counts an iteration the
+    // deadline cut short once the previous best move was searched; finishedDepth only
+    // counts iterations that searched every root move.
+    int bestDirection;
+    int completedDepth;
+    int finishedDepth;
+
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private final MoveOrdering ordering;
+    private final int maxDepth;
+
+    AlphaBetaSearch(MoveTable moves, TranspositionTable table, Evaluator evaluator, int maxDepth, int pollInterval) {
+        this.state = new BitBoard(moves);
+        this.clock = new SearchClock(pollInterval);
+        this.evaluator = evaluator;
+        this.table = table;
+        this.maxDepth = maxDepth;
+        this.ordering = new MoveOrdering(moves);
+        // Depths below maxDepth order the nodes of the search, maxDepth itself the root
+        this.ordering.ensureDepth(maxDepth);
+        evaluator.track(state);
+    }
+
+    // Iterative deepening from the position in state until the clock expires; rotation varies the root order
+    void iterativeDeepening(int firstDepth, int rotation) {
+        // Sort moves by initial evaluation to prioritize promising moves first
+        int moveCount = orderMoves(maxDepth, state.legalMoves());
+        int[] rootOrder = ordering.moves(maxDepth);
+
+        bestDirection = rootOrder[0];
+        completedDepth = 0;
+        finishedDepth = 0;
+        ordering.clearKillers();
+
+        // Start with a shallow search, then gradually increase depth
+        for (int depth = firstDepth; depth <= maxDepth; depth++) {
+            int iterationBest = -1;
+            double iterationScore = Double.NEGATIVE_INFINITY;
+
+            // The best move of the previous depth goes first, then the others in ranked (rotated) order
+            int previousBest = bestDirection;
+            int next = 0;
+
+            for (int i = 0; i < moveCount; i++) {
+                int direction;
+                if (i == 0) {
+                    direction = previousBest;
+                } else {
+                    do {
+                        direction = rootOrder[(next++ + rotation) % moveCount];
+                    } while (direction == previousBest);
+                }
+
+                // Apply the move on the search board, evaluate it using look-ahead, then take it back
+                state.make(direction);
+                double score = searchChild(depth - 1, i, iterationScore, Double.POSITIVE_INFINITY);
+                state.unmake();
+
+                // A search cut off by the deadline has no reliable score
+                if (clock.isExpired()) {
+                    break;
+                }
+
+                if (iterationBest < 0 || score > iterationScore) {
+                    iterationBest = direction;
+                    iterationScore = score;
+                }
+            }
+
+            // Scores from different depths are not comparable. A depth cut off by the deadline
+            // still counts once the previous best move was searched, since the others were measured against it.
+            if (iterationBest >= 0) {
+                bestDirection = iterationBest;
+                completedDepth = depth;
+                stats.depth = depth;
+            }
+            if (!clock.isExpired()) {
+                finishedDepth = depth;
+            }
+
+            // Stop when time is up, or when the next depth is unlikely to finish in the time left
+            if (clock.isSoftExpired()) {
+                stats.stopReason = clock.isExpired() ? SearchStats.HARD_LIMIT : SearchStats.SOFT_LIMIT;
+                break;
+            }
+        }
+    }
+
+    // Value of the position in state searched depth plies deep, for callers that search a single position
+    double searchPosition(int depth) {
+        ordering.ensureDepth(depth);
+        return search(depth, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    // Alpha-beta pruning with look-ahead search on the search board
+    private double search(int depth, double alpha, double beta) {
+        stats.nodes++;
+        // Return the evaluation if we've reached the maximum depth or game over
+        int moves = state.legalMoves();
+        if (depth <= 0 || moves == 0) {
+            return evaluator.evaluate(state);
+        }
+
+        // Unwind quickly once time is up; the caller discards the result
+        if (clock.tick()) {
+            return 0;
+        }
+
+        // Check the transposition table; only entries searched at least this deep are usable
+        long key = state.getHash();
+        long entry = table.probe(key);
+        stats.cacheProbes++;
+        if (entry != 0 && TranspositionTable.depth(entry) >= depth) {
+            double cachedScore = TranspositionTable.score(entry);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && cachedScore >= beta)
+                    || (bound == TranspositionTable.UPPER && cachedScore <= alpha)) {
+                stats.cacheHits++;
+                return cachedScore;
+            }
+        }
+
+        double bestScore = Double.NEGATIVE_INFINITY;
+
+        int count = orderMoves(depth, moves);
+        ordering.killerFirst(depth, count);
+        int[] order = ordering.moves(depth);
+        for (int i = 0; i < count; i++) {
+            state.make(order[i]);
+            double score = searchChild(depth - 1, i, alpha, beta);
+            state.unmake();
+            bestScore = Math.max(bestScore, score);
+
+            // Alpha-beta pruning logic
+            alpha = Math.max(alpha, bestScore);
+            if (beta <= alpha) {
+                ordering.setKiller(depth, order[i]);
+                break;
+            }
+        }
+
+        if (clock.isExpired()) {
+            return bestScore;
+        }
+
+        // Cache the result with the kind of bound it represents. Only a cutoff skips children:
+        // a node that stayed below beta searched them all, so its value is exact even below alpha.
+        int bound = bestScore >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(key, bestScore, depth, bound);
+        return bestScore;
+    }
+
+    // Searches the child in state, the index-th move tried at its parent, within (alpha, beta)
+    private double searchChild(int depth, int index, double alpha, double beta) {
+        if (index == 0) {
+            return search(depth, alpha, beta);
+        }
+        // Null window: only whether the child beats alpha; if it does, search it again for its value
+        double score = search(depth, alpha, Math.nextUp(alpha));
+        if (score > alpha && score < beta && !clock.isExpired()) {
+            score = search(depth, alpha, beta);
+        }
+        return score;
+    }
+
+    // Loads the legal moves into the buffer of a depth, best move score first, and returns how many there are
+    private int orderMoves(int depth, int moves) {
+        int count = ordering.load(depth, moves);
+        int[] order = ordering.moves(depth);
+        double[] scores = ordering.scores(depth);
+        for (int i = 0; i < count; i++) {
+            scores[i] = evaluator.moveScore(state, order[i]);
+        }
+        ordering.sort(depth, count);
+        return count;
+    }
+}
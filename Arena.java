@@ -0,0 +1,526 @@
+package players;
+import game.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Tournament runner for the players package. Every concrete Player subclass found next
+ * to this class (or the ones named on the command line) plays one game per board size
+ * and seed. Each seed fixes a random opening of a few moves, so all players start from
+ * the same positions and their scores can be compared seed by seed. Games run in
+ * parallel on a fixed thread pool. Every nextMove() call is timed with System.nanoTime;
+ * a move over the time limit counts as a timeout and ends that game.
+ *
+ * Players that implement SearchTelemetry also report nodes, depth, cache hits, rollouts
+ * and why the search stopped for every move. The report shows their totals, and
+ * --telemetry=DIR writes one CSV per game with a row per move.
+ *
+ * Usage: java players.Arena [--sizes=8,16,30] [--seeds=N] [--opening=N] [--threads=N]
+ *        [--time-limit=MS] [--csv=games.csv] [--telemetry=DIR] [PlayerName]...
+ *
+ * Some players search in parallel themselves. The Monte Carlo players run rollouts on the
+ * common ForkJoin pool and compete with the games for the same cores. Player16073's
+ * helper threads only get the cores that the games leave free (see SearchThreads), which
+ * is none at the default of one game per core. Players that ponder are stopped when
+ * their game ends (see Pondering). For timing-sensitive comparisons use --threads=1.
+ */
+public class Arena {
+    private static final String USAGE = "Usage: java players.Arena [--sizes=8,16,30] [--seeds=N] [--opening=N] [--threads=N]\n"
+            + "       [--time-limit=MS] [--csv=games.csv] [--telemetry=DIR] [PlayerName]...";
+
+    private final List<Class<? extends Player>> players;
+    private final int[] sizes;
+    private final int seeds;
+    private final int openingMoves;
+    private final long timeLimitNanos;
+    private final boolean logMoves;  // Keep a telemetry row per move for writeMoveLogs
+
+    public Arena(List<Class<? extends Player>> players, int[] sizes, int seeds, int openingMoves, long timeLimitMs,
+            boolean logMoves) {
+        this.players = players;
+        this.sizes = sizes;
+        this.seeds = seeds;
+        this.openingMoves = openingMoves;
+        this.timeLimitNanos = timeLimitMs * 1_000_000L;
+        this.logMoves = logMoves;
+    }
+
+    public static void main(String[] args) {
+        try {
+            int[] sizes = {8, 16, 30};
+            int seeds = 10;
+            int opening = 2;
+            int threads = Runtime.getRuntime().availableProcessors();
+            long timeLimitMs = 1000;
+            String csvPath = null;
+            String telemetryPath = null;
+            List<String> names = new ArrayList<>();
+            for (String arg : args) {
+                if (arg.startsWith("--sizes=")) {
+                    sizes = Arrays.stream(arg.substring("--sizes=".length()).split(",")).mapToInt(Integer::parseInt).toArray();
+                } else if (arg.startsWith("--seeds=")) {
+                    seeds = Integer.parseInt(arg.substring("--seeds=".length()));
+                } else if (arg.startsWith("--opening=")) {
+                    opening = Integer.parseInt(arg.substring("--opening=".length()));
+                } else if (arg.startsWith("--threads=")) {
+                    threads = Integer.parseInt(arg.substring("--threads=".length()));
+                } else if (arg.startsWith("--time-limit=")) {
+                    timeLimitMs = Long.parseLong(arg.substring("--time-limit=".length()));
+                } else if (arg.startsWith("--csv=")) {
+                    csvPath = arg.substring("--csv=".length());
+                } else if (arg.startsWith("--telemetry=")) {
+                    telemetryPath = arg.substring("--telemetry=".length());
+                } else if (arg.startsWith("--")) {
+                    System.out.println(USAGE);
+                    return;
+                } else {
+                    names.add(arg);
+                }
+            }
+
+            List<Class<? extends Player>> players = names.isEmpty() ? discoverPlayers() : loadPlayers(names);
+            if (players.isEmpty()) {
+                System.out.println("No players found");
+                return;
+            }
+
+            Arena arena = new Arena(players, sizes, seeds, opening, timeLimitMs, telemetryPath != null);
+            List<GameResult> results = arena.run(threads);
+            arena.printReport(results);
+            if (csvPath != null) {
+                writeCsv(results, csvPath);
+                System.out.println("Game results written to " + csvPath);
+            }
+            if (telemetryPath != null) {
+                int files = writeMoveLogs(results, telemetryPath);
+                System.out.println(files + " move logs written to " + telemetryPath);
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid number in arguments: " + e.getMessage());
+        } catch (ClassNotFoundException e) {
+            System.out.println("Player class not found: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Finds every concrete Player subclass in this class's package, from a directory or a jar
+    public static List<Class<? extends Player>> discoverPlayers() throws IOException, ClassNotFoundException {
+        String packageName = Arena.class.getPackage().getName();
+        String packagePath = packageName.replace('.', '/');
+        URL location = Arena.class.getProtectionDomain().getCodeSource().getLocation();
+        TreeSet<String> classNames = new TreeSet<>();
+
+        File source;
+        try {
+            source = new File(location.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("Cannot locate player classes: " + location, e);
+        }
+        if (source.isDirectory()) {
+            String[] files = new File(source, packagePath).list();
+            if (files != null) {
+                for (String file : files) {
+                    if (file.endsWith(".class") && !file.contains("$")) {
+                        classNames.add(file.substring(0, file.length() - ".class".length()));
+                    }
+                }
+            }
+        } else {
+            try (JarFile jar = new JarFile(source)) {
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    String entry = entries.nextElement().getName();
+                    if (entry.startsWith(packagePath + "/") && entry.endsWith(".class") && !entry.contains("$")
+                            && entry.indexOf('/', packagePath.length() + 1) < 0) {
+                        classNames.add(entry.substring(packagePath.length() + 1, entry.length() - ".class".length()));
+                    }
+                }
+            }
+        }
+
+        List<Class<? extends Player>> players = new ArrayList<>();
+        for (String name : classNames) {
+            Class<?> type = Class.forName(packageName + "." + name);
+            if (isPlayable(type)) {
+                players.add(type.asSubclass(Player.class));
+            }
+        }
+        return players;
+    }
+
+    public static List<Class<? extends Player>> loadPlayers(List<String> names) throws ClassNotFoundException {
+        List<Class<? extends Player>> players = new ArrayList<>();
+        for (String name : names) {
+            Class<?> type = Class.forName(name.contains(".") ? name : Arena.class.getPackage().getName() + "." + name);
+            if (!isPlayable(type)) {
+                throw new ClassNotFoundException(name + " is not a concrete Player with a public (Board) constructor");
+            }
+            players.add(type.asSubclass(Player.class));
+        }
+        return players;
+    }
+
+    private static boolean isPlayable(Class<?> type) {
+        if (!Player.class.isAssignableFrom(type) || Modifier.isAbstract(type.getModifiers())
+                || !Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+        try {
+            type.getConstructor(Board.class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // Plays every player on every size and seed, on the given number of threads
+    public List<GameResult> run(int threads) throws InterruptedException {
+        // The games take a core each; parallel helper searches may only use the rest
+        int helperLimit = SearchThreads.helperLimit();
+        SearchThreads.limitHelpers(Runtime.getRuntime().availableProcessors() - Math.max(1, threads));
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "arena");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<GameResult>> games = new ArrayList<>();
+            for (int size : sizes) {
+                for (int seed = 0; seed < seeds; seed++) {
+                    for (Class<? extends Player> player : players) {
+                        int gameSize = size;
+                        long gameSeed = seed;
+                        games.add(pool.submit(() -> play(player, gameSize, gameSeed)));
+                    }
+                }
+            }
+
+            List<GameResult> results = new ArrayList<>();
+            for (Future<GameResult> game : games) {
+                try {
+                    results.add(game.get());
+                } catch (ExecutionException e) {
+                    // play() records player failures itself, so this is a bug in the arena
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+            SearchThreads.limitHelpers(helperLimit);
+        }
+    }
+
+    // Plays a single game from the opening fixed by seed
+    public GameResult play(Class<? extends Player> playerClass, int size, long seed) {
+        GameResult result = new GameResult(playerClass.getSimpleName(), size, seed);
+        Board board = new Board(size);
+        Random random = new Random(seed * 31 + size);
+        for (int i = 0; i < openingMoves && !board.isGameOver(); i++) {
+            List<Move> moves = board.getPossibleMoves();
+            board.applyMove(moves.get(random.nextInt(moves.size())));
+        }
+        result.openingScore = board.getScore();
+
+        Player player;
+        try {
+            Constructor<? extends Player> constructor = playerClass.getConstructor(Board.class);
+            player = constructor.newInstance(board);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            result.error = "constructor: " + e;
+            result.finalScore = board.getScore();
+            return result;
+        }
+        SearchTelemetry telemetry = player instanceof SearchTelemetry ? (SearchTelemetry) player : null;
+        if (telemetry != null) {
+            result.nodes = 0;
+        }
+        StringBuilder moveLog = telemetry != null && logMoves ? new StringBuilder() : null;
+
+        while (!board.isGameOver()) {
+            long start = System.nanoTime();
+            Move move;
+            try {
+                move = player.nextMove();
+            } catch (RuntimeException e) {
+                result.error = "nextMove: " + e;
+                break;
+            }
+            long elapsed = System.nanoTime() - start;
+            result.addMoveTime(elapsed);
+            if (telemetry != null) {
+                SearchStats stats = telemetry.lastMoveStats();
+                result.addStats(stats);
+                if (moveLog != null) {
+                    appendMoveRow(moveLog, result.moveCount, board.getScore(), elapsed, stats);
+                }
+            }
+
+            if (elapsed > timeLimitNanos) {
+                result.timedOut = true;
+                break;
+            }
+            if (move == null || !board.applyMove(move)) {
+                result.illegalMove = true;
+                break;
+            }
+        }
+
+        // A background search would otherwise keep a core from the games still running
+        if (player instanceof Pondering) {
+            try {
+                ((Pondering) player).stopPondering();
+            } catch (RuntimeException e) {
+                if (result.error == null) {
+                    result.error = "stopPondering: " + e;
+                }
+            }
+        }
+
+        result.finalScore = board.getScore();
+        result.coverage = board.getCoveragePercentage();
+        result.moveLog = moveLog == null ? null : moveLog.toString();
+        return result;
+    }
+
+    public void printReport(List<GameResult> results) {
+        // Group by player name and board size
+        Map<String, Map<Integer, List<GameResult>>> grouped = new TreeMap<>();
+        for (GameResult result : results) {
+            grouped.computeIfAbsent(result.player, k -> new TreeMap<>())
+                    .computeIfAbsent(result.size, k -> new ArrayList<>())
+                    .add(result);
+        }
+
+        System.out.printf("%d players, sizes %s, %d seeds, %d opening moves, %d ms per move%n",
+                players.size(), Arrays.toString(sizes), seeds, openingMoves, timeLimitNanos / 1_000_000);
+        System.out.printf("%-20s %5s %5s %8s %7s %5s %5s %5s %5s %5s %9s %5s %5s %5s %7s %7s %7s %7s%n",
+                "player", "size", "games", "score", "ci95", "min", "med", "max", "tout", "fail",
+                "nodes/s", "depth", "hit%", "cut%", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, Map<Integer, List<GameResult>>> player : grouped.entrySet()) {
+            for (Map.Entry<Integer, List<GameResult>> bySize : player.getValue().entrySet()) {
+                List<GameResult> games = bySize.getValue();
+                double[] scores = new double[games.size()];
+                int timeouts = 0;
+                int failures = 0;
+                long nodes = 0;
+                long searchNanos = 0;
+                boolean countsNodes = true;
+                long reportedMoves = 0;
+                long depthSum = 0;
+                long cacheProbes = 0;
+                long cacheHits = 0;
+                long hardStops = 0;
+                long[] moveTimes = new long[0];
+                for (int i = 0; i < games.size(); i++) {
+                    GameResult game = games.get(i);
+                    scores[i] = game.finalScore;
+                    if (game.timedOut) timeouts++;
+                    if (game.illegalMove || game.error != null) failures++;
+                    if (game.nodes < 0) {
+                        countsNodes = false;
+                    } else {
+                        nodes += game.nodes;
+                    }
+                    reportedMoves += game.reportedMoves;
+                    depthSum += game.depthSum;
+                    cacheProbes += game.cacheProbes;
+                    cacheHits += game.cacheHits;
+                    hardStops += game.hardStops;
+                    searchNanos += game.totalMoveNanos();
+                    moveTimes = concat(moveTimes, game.moveTimes());
+                }
+                Arrays.sort(scores);
+                Arrays.sort(moveTimes);
+                double mean = mean(scores);
+                double interval = 1.96 * standardDeviation(scores, mean) / Math.sqrt(scores.length);
+                String nodeRate = countsNodes && searchNanos > 0
+                        ? String.format("%.0f", nodes * 1e9 / searchNanos) : "-";
+                String depth = reportedMoves > 0 ? String.format("%.1f", (double) depthSum / reportedMoves) : "-";
+                String hitRate = cacheProbes > 0 ? String.format("%.0f", 100.0 * cacheHits / cacheProbes) : "-";
+                String cutRate = reportedMoves > 0 ? String.format("%.0f", 100.0 * hardStops / reportedMoves) : "-";
+                System.out.printf("%-20s %5d %5d %8.1f %7.1f %5.0f %5.0f %5.0f %5d %5d %9s %5s %5s %5s %7.1f %7.1f %7.1f %7.1f%n",
+                        player.getKey(), bySize.getKey(), games.size(), mean, interval,
+                        scores[0], percentile(scores, 0.5), scores[scores.length - 1], timeouts, failures,
+                        nodeRate, depth, hitRate, cutRate, percentileMillis(moveTimes, 0.5), percentileMillis(moveTimes, 0.9),
+                        percentileMillis(moveTimes, 0.99), percentileMillis(moveTimes, 1.0));
+            }
+        }
+
+        for (GameResult result : results) {
+            if (result.error != null) {
+                System.out.printf("%s size %d seed %d failed: %s%n", result.player, result.size, result.seed, result.error);
+            }
+        }
+    }
+
+    public static void writeCsv(List<GameResult> results, String path) throws IOException {
+        try (PrintWriter out = new PrintWriter(path)) {
+            out.println("player,size,seed,opening_score,final_score,coverage,moves,timed_out,illegal_move,error,nodes,"
+                    + "mean_depth,cache_probes,cache_hits,rollouts,soft_stops,hard_stops,max_move_ms");
+            for (GameResult r : results) {
+                long[] times = r.moveTimes();
+                long max = 0;
+                for (long t : times) max = Math.max(max, t);
+                double meanDepth = r.reportedMoves == 0 ? 0 : (double) r.depthSum / r.reportedMoves;
+                out.printf("%s,%d,%d,%d,%d,%.2f,%d,%b,%b,%s,%d,%.2f,%d,%d,%d,%d,%d,%.3f%n", r.player, r.size, r.seed,
+                        r.openingScore, r.finalScore, r.coverage, times.length, r.timedOut, r.illegalMove,
+                        r.error == null ? "" : "\"" + r.error.replace("\"", "'") + "\"", r.nodes, meanDepth,
+                        r.cacheProbes, r.cacheHits, r.rollouts, r.softStops, r.hardStops, max / 1e6);
+            }
+        }
+    }
+
+    // Writes directory/PLAYER-SIZE-SEED.csv for every game with telemetry and returns the number of files
+    public static int writeMoveLogs(List<GameResult> results, String directory) throws IOException {
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        int files = 0;
+        for (GameResult r : results) {
+            if (r.moveLog == null) {
+                continue;
+            }
+            Path file = dir.resolve(r.player + "-" + r.size + "-" + r.seed + ".csv");
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+                out.println("move,score,move_ms,nodes,depth,cache_probes,cache_hits,rollouts,stop,search_ms,budget_ms,unused_ms");
+                out.print(r.moveLog);
+            }
+            files++;
+        }
+        return files;
+    }
+
+    // score is the player's score before the move
+    private static void appendMoveRow(StringBuilder log, int move, int score, long moveNanos, SearchStats stats) {
+        log.append(String.format("%d,%d,%.3f,%d,%d,%d,%d,%d,%s,%.3f,%.3f,%.3f%n", move, score, moveNanos / 1e6,
+                stats.getNodes(), stats.getDepth(), stats.getCacheProbes(), stats.getCacheHits(), stats.getRollouts(),
+                SearchStats.stopReasonName(stats.getStopReason()), stats.getElapsedNanos() / 1e6,
+                stats.getBudgetNanos() / 1e6, stats.getUnusedNanos() / 1e6));
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        long[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double v : values) sum += v;
+        return sum / values.length;
+    }
+
+    private static double standardDeviation(double[] values, double mean) {
+        if (values.length < 2) return 0;
+        double sum = 0;
+        for (double v : values) sum += (v - mean) * (v - mean);
+        return Math.sqrt(sum / (values.length - 1));
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static double percentile(double[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double percentileMillis(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    /**
+     * Outcome of one game. Move times are kept per move (nanoseconds) for percentiles;
+     * the search telemetry is summed over the moves.
+     */
+    public static final class GameResult {
+        final String player;
+        final int size;
+        final long seed;
+        int openingScore;
+        int finalScore;
+        double coverage;
+        boolean timedOut;
+        boolean illegalMove;
+        String error;
+        long nodes = -1; // -1 when the player does not implement SearchTelemetry
+        long reportedMoves;
+        long depthSum;
+        long cacheProbes;
+        long cacheHits;
+        long rollouts;
+        int softStops;
+        int hardStops;
+        String moveLog; // CSV rows, one per move, if the arena keeps move logs
+        private long[] moveTimes = new long[64];
+        private int moveCount;
+
+        GameResult(String player, int size, long seed) {
+            this.player = player;
+            this.size = size;
+            this.seed = seed;
+        }
+
+        void addMoveTime(long nanos) {
+            if (moveCount == moveTimes.length) {
+                moveTimes = Arrays.copyOf(moveTimes, moveCount * 2);
+            }
+            moveTimes[moveCount++] = nanos;
+        }
+
+        void addStats(SearchStats stats) {
+            nodes += stats.getNodes();
+            reportedMoves++;
+            depthSum += stats.getDepth();
+            cacheProbes += stats.getCacheProbes();
+            cacheHits += stats.getCacheHits();
+            rollouts += stats.getRollouts();
+            if (stats.getStopReason() == SearchStats.SOFT_LIMIT) softStops++;
+            if (stats.getStopReason() == SearchStats.HARD_LIMIT) hardStops++;
+        }
+
+        public long[] moveTimes() {
+            return Arrays.copyOf(moveTimes, moveCount);
+        }
+
+        public long totalMoveNanos() {
+            long total = 0;
+            for (int i = 0; i < moveCount; i++) total += moveTimes[i];
+            return total;
+        }
+
+        public int getFinalScore() {
+            return finalScore;
+        }
+
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package players;
+import game.*;
+
+import java.util.Arrays;
+
+/**
+ * Compact copy of a game.Board for search: visited cells packed into a long[] (bit
+ * row * size + col) and the player position as ints. Copies are a single arraycopy,
+ * so searches can reuse preallocated instances instead of allocating a Board per node.
+ * Searches that walk a tree in place use make/unmake, which keep an undo stack.
+ * A Zobrist hash of the position is maintained incrementally by every move, and so are
+ * the neighbor counts of the unvisited cells once trackNeighbors() has been called, the
+ * onward degree of every cell once trackDegrees() has been called, and the hashes of
+ * the position's mirror images once trackSymmetries() has been called.
+ */
+public final class BitBoard {
+    final MoveTable table;
+    final int size;
+    final long[] visited;
+    int row;
+    int col;
+    int score;
+    long hash;
+    private final ZobristKeys keys;
+
+    // Cells the player stood on before each make(), for unmake()
+    private final int[] undo;
+    private int undoTop;
+
+    // Null unless trackNeighbors() was called
+    private NeighborCounts neighbors;
+    // Null unless trackDegrees() was called
+    private OnwardDegrees degrees;
+    // Hash of the image under each of table.symmetries (index 0, the identity, is hash); null unless tracked
+    private long[] symmetricHashes;
+    // Scratch sets for reachableCells() and deadEndsInRegion(), allocated on first use
+    private long[] region;
+    private long[] frontier;
+    private long[] next;
+    private long[] shifted;
+
+    public BitBoard(Board board, MoveTable table) {
+        this.table = table;
+        this.size = board.getSize();
+        this.keys = ZobristKeys.forSize(size);
+        this.visited = new long[words(size)];
+        this.undo = new int[size * size];
+        load(board);
+    }
+
+    // Empty instance meant to be filled with copyFrom
+    public BitBoard(MoveTable table) {
+        this.table = table;
+        this.size = table.size;
+        this.keys = ZobristKeys.forSize(size);
+        this.visited = new long[words(size)];
+        this.undo = new int[size * size];
+    }
+
+    private BitBoard(BitBoard other) {
+        this.table = other.table;
+        this.size = other.size;
+        this.keys = other.keys;
+        this.visited = other.visited.clone();
+        this.undo = new int[size * size];
+        this.row = other.row;
+        this.col = other.col;
+        this.score = other.score;
+        this.hash = other.hash;
+        if (other.neighbors != null) {
+            this.neighbors = new NeighborCounts(size);
+            this.neighbors.copyFrom(other.neighbors);
+        }
+        if (other.degrees != null) {
+            this.degrees = new OnwardDegrees(table);
+            this.degrees.copyFrom(other.degrees);
+        }
+        if (other.symmetricHashes != null) {
+            this.symmetricHashes = other.symmetricHashes.clone();
+        }
+    }
+
+    private static int words(int size) {
+        return (size * size + 63) >>> 6;
+    }
+
+    public BitBoard copy() {
+        return new BitBoard(this);
+    }
+
+    // Overwrites this instance with the state of a game board
+    public void load(Board board) {
+        Arrays.fill(visited, 0L);
+        hash = 0;
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                if (board.isVisited(r, c)) {
+                    visited[(r * size + c) >>> 6] |= 1L << (r * size + c);
+                    hash ^= keys.visited[r * size + c];
+                }
+            }
+        }
+        row = board.getPlayerRow();
+        col = board.getPlayerCol();
+        hash ^= keys.player[row * size + col];
+        score = countVisited();
+        undoTop = 0;
+        if (neighbors != null) {
+            neighbors.reset(visited);
+        }
+        if (degrees != null) {
+            degrees.reset(visited);
+        }
+        if (symmetricHashes != null) {
+            resetSymmetricHashes();
+        }
+    }
+
+    public void copyFrom(BitBoard other) {
+        System.arraycopy(other.visited, 0, visited, 0, visited.length);
+        row = other.row;
+        col = other.col;
+        score = other.score;
+        hash = other.hash;
+        undoTop = 0;
+        if (neighbors != null) {
+            if (other.neighbors != null) {
+                neighbors.copyFrom(other.neighbors);
+            } else {
+                neighbors.reset(visited);
+            }
+        }
+        if (degrees != null) {
+            if (other.degrees != null) {
+                degrees.copyFrom(other.degrees);
+            } else {
+                degrees.reset(visited);
+            }
+        }
+        if (symmetricHashes != null) {
+            if (other.symmetricHashes != null) {
+                System.arraycopy(other.symmetricHashes, 0, symmetricHashes, 0, symmetricHashes.length);
+            } else {
+                resetSymmetricHashes();
+            }
+        }
+    }
+
+    // Starts maintaining neighbor counts of the unvisited cells on every move
+    public void trackNeighbors() {
+        if (neighbors == null) {
+            neighbors = new NeighborCounts(size);
+            neighbors.reset(visited);
+        }
+    }
+
+    /**
+     * Starts maintaining the onward degree of every cell on every move, so that degree()
+     * and mobility() become array reads. Each move then updates up to one cell per
+     * direction; worth it for searches that read degrees at most nodes.
+     */
+    public void trackDegrees() {
+        if (degrees == null) {
+            degrees = new OnwardDegrees(table);
+            degrees.reset(visited);
+        }
+    }
+
+    /**
+     * Starts maintaining the hashes of the position's images under the board symmetries
+     * that preserve the moves, for getCanonicalHash(). Each move then costs three XORs
+     * per symmetry (up to 8) instead of three.
+     */
+    public void trackSymmetries() {
+        if (symmetricHashes == null) {
+            symmetricHashes = new long[table.symmetries.length];
+            resetSymmetricHashes();
+        }
+    }
+
+    private void resetSymmetricHashes() {
+        for (int i = 0; i < symmetricHashes.length; i++) {
+            long[] visitedKeys = keys.symmetricVisited[table.symmetries[i]];
+            long h = keys.symmetricPlayer[table.symmetries[i]][row * size + col];
+            for (int w = 0; w < visited.length; w++) {
+                for (long bits = visited[w]; bits != 0; bits &= bits - 1) {
+                    h ^= visitedKeys[(w << 6) + Long.numberOfTrailingZeros(bits)];
+                }
+            }
+            symmetricHashes[i] = h;
+        }
+    }
+
+    /**
+     * The same key for a position and all its rotations and reflections that play the
+     * same (see MoveTable.symmetries): the smallest hash among its images. Caches keyed
+     * by it store each such family of positions once. Without trackSymmetries() this is
+     * the plain hash.
+     */
+    public long getCanonicalHash() {
+        if (symmetricHashes == null) {
+            return hash;
+        }
+        long min = hash;
+        for (int i = 1; i < symmetricHashes.length; i++) {
+            min = Math.min(min, symmetricHashes[i]);
+        }
+        return min;
+    }
+
+    /**
+     * The symmetry (ZobristKeys numbering) whose image of this position getCanonicalHash()
+     * is the hash of. A move stored for the canonical image maps back to this position
+     * with table.symmetricDirection[table.inverseSymmetry[t]]. Requires trackSymmetries().
+     */
+    public int canonicalSymmetry() {
+        int best = 0;
+        for (int i = 1; i < symmetricHashes.length; i++) {
+            if (symmetricHashes[i] < symmetricHashes[best]) {
+                best = i;
+            }
+        }
+        return table.symmetries[best];
+    }
+
+    /**
+     * Sum over all unvisited cells of their unvisited neighbors (8 around each cell).
+     * Requires trackNeighbors().
+     */
+    public int neighborConnectivity() {
+        return neighbors.total();
+    }
+
+    /**
+     * Unvisited cells among the 8 around cell. Visiting cell lowers neighborConnectivity()
+     * by twice this. Requires trackNeighbors().
+     */
+    public int freeNeighbors(int cell) {
+        return neighbors.freeNeighbors(cell);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getPlayerRow() {
+        return row;
+    }
+
+    public int getPlayerCol() {
+        return col;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    // Number of visited cells, the game's score
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isVisited(int r, int c) {
+        int cell = r * size + c;
+        return (visited[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    // Bit d is set when direction d leads to an unvisited cell on the board
+    public int legalMoves() {
+        return movesFrom(row * size + col);
+    }
+
+    // Moves from any cell to unvisited cells, as a direction mask
+    public int movesFrom(int cell) {
+        int mask = 0;
+        int base = cell * table.directions;
+        for (int candidates = table.onBoard[cell]; candidates != 0; candidates &= candidates - 1) {
+            int d = Integer.numberOfTrailingZeros(candidates);
+            int target = table.targets[base + d];
+            if ((visited[target >>> 6] & (1L << target)) == 0) {
+                mask |= 1 << d;
+            }
+        }
+        return mask;
+    }
+
+    public int mobility() {
+        return degree(row * size + col);
+    }
+
+    /**
+     * Number of unvisited cells one move away from cell. For the destination of a legal
+     * move this is the mobility after making it, without having to make it.
+     */
+    public int degree(int cell) {
+        return degrees != null ? degrees.degree(cell) : Integer.bitCount(movesFrom(cell));
+    }
+
+    // Destination cell of a move from the player's cell
+    public int target(int direction) {
+        return table.targets[(row * size + col) * table.directions + direction];
+    }
+
+    public boolean isGameOver() {
+        return legalMoves() == 0;
+    }
+
+    // The caller is responsible for passing a legal direction
+    public void apply(int direction) {
+        int from = row * size + col;
+        int cell = table.targets[from * table.directions + direction];
+        row += table.dRow[direction];
+        col += table.dCol[direction];
+        visited[cell >>> 6] |= 1L << cell;
+        score++;
+        hash ^= keys.player[from] ^ keys.player[cell] ^ keys.visited[cell];
+        if (neighbors != null) {
+            neighbors.visit(cell);
+        }
+        if (degrees != null) {
+            degrees.visit(cell);
+        }
+        if (symmetricHashes != null) {
+            updateSymmetricHashes(from, cell, cell);
+        }
+    }
+
+    // Direction of the n-th (0-based) set bit of a legal move mask
+    public static int nthDirection(int mask, int n) {
+        for (int i = 0; i < n; i++) {
+            mask &= mask - 1;
+        }
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
+    // Applies a legal move and remembers how to take it back
+    public void make(int direction) {
+        undo[undoTop++] = row * size + col;
+        apply(direction);
+    }
+
+    public void unmake() {
+        int cell = row * size + col;
+        visited[cell >>> 6] &= ~(1L << cell);
+        score--;
+        int previous = undo[--undoTop];
+        row = previous / size;
+        col = previous % size;
+        hash ^= keys.player[cell] ^ keys.player[previous] ^ keys.visited[cell];
+        if (neighbors != null) {
+            neighbors.unvisit(cell);
+        }
+        if (degrees != null) {
+            degrees.unvisit(cell);
+        }
+        if (symmetricHashes != null) {
+            updateSymmetricHashes(cell, previous, cell);
+        }
+    }
+
+    // The player moved from one cell to another and the visited flag of toggled changed
+    private void updateSymmetricHashes(int from, int to, int toggled) {
+        int[] symmetries = table.symmetries;
+        for (int i = 0; i < symmetries.length; i++) {
+            long[] player = keys.symmetricPlayer[symmetries[i]];
+            symmetricHashes[i] ^= player[from] ^ player[to] ^ keys.symmetricVisited[symmetries[i]][toggled];
+        }
+    }
+
+    public int countVisited() {
+        int count = 0;
+        for (long word : visited) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Bit-parallel move generation for a whole set of cells: ORs into dst every
+     * unvisited cell reachable in one move from some cell of src.
+     */
+    public void expand(long[] src, long[] dst) {
+        for (int d = 0; d < table.directions; d++) {
+            shift(src, d, dst);
+        }
+    }
+
+    // ORs into dst every unvisited cell reached by a move in direction d from a cell of src
+    private void shift(long[] src, int d, long[] dst) {
+        int shift = table.dRow[d] * size + table.dCol[d];
+        long[] mask = table.sourceMask[d];
+        if (shift >= 0) {
+            int wordShift = shift >>> 6;
+            int bitShift = shift & 63;
+            for (int i = dst.length - 1; i >= wordShift; i--) {
+                int j = i - wordShift;
+                long bits = (src[j] & mask[j]) << bitShift;
+                if (bitShift != 0 && j > 0) {
+                    bits |= (src[j - 1] & mask[j - 1]) >>> (64 - bitShift);
+                }
+                dst[i] |= bits & ~visited[i];
+            }
+        } else {
+            int wordShift = (-shift) >>> 6;
+            int bitShift = (-shift) & 63;
+            for (int i = 0; i + wordShift < dst.length; i++) {
+                int j = i + wordShift;
+                long bits = (src[j] & mask[j]) >>> bitShift;
+                if (bitShift != 0 && j + 1 < src.length) {
+                    bits |= (src[j + 1] & mask[j + 1]) << (64 - bitShift);
+                }
+                dst[i] |= bits & ~visited[i];
+            }
+        }
+    }
+
+    /**
+     * Size of the region the player can still reach: unvisited cells connected to the
+     * player by chains of moves, found by a bitset flood fill with expand(). Parity and
+     * dead ends are ignored, so it is an upper bound on the cells left to visit.
+     */
+    public int reachableCells() {
+        if (region == null) {
+            region = new long[visited.length];
+            frontier = new long[visited.length];
+            next = new long[visited.length];
+            shifted = new long[visited.length];
+        }
+        Arrays.fill(region, 0L);
+        Arrays.fill(frontier, 0L);
+        int cell = row * size + col;
+        frontier[cell >>> 6] = 1L << cell;
+
+        int count = 0;
+        boolean grew = true;
+        while (grew) {
+            Arrays.fill(next, 0L);
+            expand(frontier, next);
+            grew = false;
+            for (int i = 0; i < next.length; i++) {
+                long added = next[i] & ~region[i];
+                region[i] |= added;
+                frontier[i] = added;
+                if (added != 0) {
+                    count += Long.bitCount(added);
+                    grew = true;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Number of cells in the region of the last reachableCells() call that have at most
+     * one unvisited neighbor. A path can only use such a cell as its first or its last
+     * step, so it visits at most two of them. Neighbor counts saturate at two and are
+     * computed for the whole region at once: per direction the region is shifted and
+     * folded into "at least one" and "at least two" sets. Only meaningful when the move
+     * set is symmetric (MoveTable.symmetric), so that shifting counts neighbors.
+     */
+    public int deadEndsInRegion() {
+        long[] atLeastOne = frontier;
+        long[] atLeastTwo = next;
+        Arrays.fill(atLeastOne, 0L);
+        Arrays.fill(atLeastTwo, 0L);
+        for (int d = 0; d < table.directions; d++) {
+            Arrays.fill(shifted, 0L);
+            shift(region, d, shifted);
+            for (int i = 0; i < shifted.length; i++) {
+                atLeastTwo[i] |= atLeastOne[i] & shifted[i];
+                atLeastOne[i] |= shifted[i];
+            }
+        }
+        int count = 0;
+        for (int i = 0; i < region.length; i++) {
+            count += Long.bitCount(region[i] & ~atLeastTwo[i]);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,176 @@
+package players;
+import game.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Offline generator of the opening book and the endgame table for one board size.
+ *
+ * Opening book: every position within the first few plies of a new game, solved with
+ * ExhaustiveSolver under a node limit (large boards cannot be solved outright, so an
+ * opening entry holds the best line found). Endgame table: positions with only a few
+ * reachable cells left, collected from sampled games and solved exactly.
+ *
+ * Usage: java players.BookGenerator SIZE [--opening-plies=N] [--opening-nodes=N]
+ *        [--endgame-cells=N] [--samples=N] [--out=DIR]
+ *
+ * Writes DIR/opening-SIZE.book and DIR/endgame-SIZE.book (PositionBook format).
+ * Positions are keyed by their canonical hash, so rotations and reflections of a
+ * position are solved and stored once.
+ */
+public class BookGenerator {
+    private static final String USAGE = "Usage: java players.BookGenerator SIZE [--opening-plies=N] [--opening-nodes=N]\n"
+            + "       [--endgame-cells=N] [--samples=N] [--out=DIR]";
+    // Endgame positions are small enough that this limit is not reached in practice
+    private static final long ENDGAME_NODES = 10_000_000L;
+
+    private final int size;
+    private final MoveTable table;
+    private final ExhaustiveSolver solver;
+
+    public BookGenerator(int size) {
+        this.size = size;
+        this.table = MoveTable.forBoard(new Board(size));
+        this.solver = new ExhaustiveSolver(table);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println(USAGE);
+            return;
+        }
+        try {
+            int size = Integer.parseInt(args[0]);
+            int openingPlies = 3;
+            long openingNodes = 200_000;
+            int endgameCells = 14;
+            int samples = 20_000;
+            Path out = Paths.get(PositionBook.DEFAULT_DIRECTORY);
+            for (int i = 1; i < args.length; i++) {
+                if (args[i].startsWith("--opening-plies=")) {
+                    openingPlies = Integer.parseInt(args[i].substring("--opening-plies=".length()));
+                } else if (args[i].startsWith("--opening-nodes=")) {
+                    openingNodes = Long.parseLong(args[i].substring("--opening-nodes=".length()));
+                } else if (args[i].startsWith("--endgame-cells=")) {
+                    endgameCells = Integer.parseInt(args[i].substring("--endgame-cells=".length()));
+                } else if (args[i].startsWith("--samples=")) {
+                    samples = Integer.parseInt(args[i].substring("--samples=".length()));
+                } else if (args[i].startsWith("--out=")) {
+                    out = Paths.get(args[i].substring("--out=".length()));
+                } else {
+                    System.out.println(USAGE);
+                    return;
+                }
+            }
+
+            BookGenerator generator = new BookGenerator(size);
+            Files.createDirectories(out);
+
+            long start = System.nanoTime();
+            Map<Long, Integer> opening = generator.openingBook(openingPlies, openingNodes);
+            Path openingPath = PositionBook.openingPath(out, size);
+            write(openingPath, size, opening);
+            System.out.printf("%d opening positions written to %s (%.1f s)%n", opening.size(), openingPath,
+                    (System.nanoTime() - start) / 1e9);
+
+            start = System.nanoTime();
+            Map<Long, Integer> endgame = generator.endgameTable(endgameCells, samples, 1);
+            Path endgamePath = PositionBook.endgamePath(out, size);
+            write(endgamePath, size, endgame);
+            System.out.printf("%d endgame positions written to %s (%.1f s)%n", endgame.size(), endgamePath,
+                    (System.nanoTime() - start) / 1e9);
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid number in arguments: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    // Solves every position reachable within plies moves of a new game, keyed by hash
+    public Map<Long, Integer> openingBook(int plies, long nodeLimit) {
+        Map<Long, Integer> book = new HashMap<>();
+        ArrayDeque<BitBoard> frontier = new ArrayDeque<>();
+        BitBoard start = new BitBoard(new Board(size), table);
+        start.trackSymmetries();
+        frontier.add(start);
+        for (int ply = 0; ply < plies && !frontier.isEmpty(); ply++) {
+            ArrayDeque<BitBoard> next = new ArrayDeque<>();
+            for (BitBoard position : frontier) {
+                long key = position.getCanonicalHash();
+                if (book.containsKey(key) || !solver.solve(position, nodeLimit)) {
+                    continue;
+                }
+                book.put(key, PositionBook.packFor(position, solver.getBestDirection(),
+                        solver.getBestScore(), solver.isExact()));
+                for (int moves = position.legalMoves(); moves != 0; moves &= moves - 1) {
+                    BitBoard child = position.copy();
+                    child.apply(Integer.numberOfTrailingZeros(moves));
+                    next.add(child);
+                }
+            }
+            frontier = next;
+        }
+        return book;
+    }
+
+    /**
+     * Plays sampled games from the start and solves every position met with at most
+     * maxCells reachable cells left. Half of the moves follow Warnsdorff's rule and half
+     * are random, so the samples cover both well-played and sloppy games.
+     */
+    public Map<Long, Integer> endgameTable(int maxCells, int samples, long seed) {
+        Map<Long, Integer> table = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(seed);
+        BitBoard start = new BitBoard(new Board(size), this.table);
+        BitBoard game = new BitBoard(this.table);
+        game.trackSymmetries();
+        for (int sample = 0; sample < samples; sample++) {
+            game.copyFrom(start);
+            int moves;
+            while ((moves = game.legalMoves()) != 0) {
+                long key = game.getCanonicalHash();
+                if (!table.containsKey(key) && game.reachableCells() <= maxCells
+                        && solver.solve(game, ENDGAME_NODES)) {
+                    table.put(key, PositionBook.packFor(game, solver.getBestDirection(),
+                            solver.getBestScore(), solver.isExact()));
+                }
+                game.apply(random.nextBoolean() ? warnsdorff(game, moves)
+                        : BitBoard.nthDirection(moves, random.nextInt(Integer.bitCount(moves))));
+            }
+        }
+        return table;
+    }
+
+    private static int warnsdorff(BitBoard game, int moves) {
+        int chosen = -1;
+        int fewest = Integer.MAX_VALUE;
+        for (; moves != 0; moves &= moves - 1) {
+            int direction = Integer.numberOfTrailingZeros(moves);
+            int onward = game.degree(game.target(direction));
+            if (onward < fewest) {
+                fewest = onward;
+                chosen = direction;
+            }
+        }
+        return chosen;
+    }
+
+    private static void write(Path path, int size, Map<Long, Integer> entries) throws IOException {
+        long[] hashes = new long[entries.size()];
+        int[] values = new int[entries.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : entries.entrySet()) {
+            hashes[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+        PositionBook.write(path, size, hashes, values);
+    }
+}
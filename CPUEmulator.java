@@ -1,3 +1,6 @@
+import java.util.ArrayList;
+import java.util.List;
+
 public class CPUEmulator {
     private Memory memory;
     private Cache cache;
@@ -6,9 +9,29 @@ public class CPUEmulator {
     private boolean flag;  // Comparison flag
     private int loadAddress;
 
+    // Run statistics
+    private long instructionCount;
+    private long[] opcodeCounts = new long[16];
+    private long executionNanos;
+    private int sampleInterval;  // 0 disables hit ratio sampling
+    private List<double[]> hitRatioSamples = new ArrayList<>();
+
     public CPUEmulator(int loadAddress, int initialPC) {
-        this.memory = new Memory();
-        this.cache = new Cache(memory);
+        this(loadAddress, initialPC, 0);
+    }
+
+    public CPUEmulator(int loadAddress, int initialPC, int victimCacheEntries) {
+        this(loadAddress, initialPC, victimCacheEntries, new Memory());
+    }
+
+    private CPUEmulator(int loadAddress, int initialPC, int victimCacheEntries, Memory memory) {
+        this(loadAddress, initialPC, memory, new Cache(memory, victimCacheEntries));
+    }
+
+    // Lets the debug engine substitute a memory and cache that trap watched addresses
+    CPUEmulator(int loadAddress, int initialPC, Memory memory, Cache cache) {
+        this.memory = memory;
+        this.cache = cache;
         this.loadAddress = loadAddress;
         this.pc = initialPC;
         this.ac = 0;
@@ -23,80 +46,150 @@ public class CPUEmulator {
         }
     }
 
+    // Record the cache hit ratio every interval instructions during execute()
+    public void setHitRatioSampling(int interval) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("Sampling interval cannot be negative: " + interval);
+        }
+        this.sampleInterval = interval;
+    }
+
     public void execute() {
-        while (true) {
-            short instruction = memory.readWord(pc);
-            int opcode = (instruction >> 12) & 0xF;
-            int operand = instruction & 0xFFF;
+        long start = System.nanoTime();
+        try {
+            run();
+        } finally {
+            executionNanos += System.nanoTime() - start;
+        }
+    }
 
-            switch (opcode) {
-                case 0x0: // START
-                    pc += 2;
-                    break;
-                case 0x1: // LOAD
-                    ac = (short) operand;
-                    pc += 2;
-                    break;
-                case 0x2: // LOADM
-                    ac = cache.readWord(loadAddress + operand * 2);
-                    pc += 2;
-                    break;
-                case 0x3: // STORE
-                    cache.writeWord(loadAddress + operand * 2, ac);
-                    pc += 2;
-                    break;
-                case 0x4: // CMPM
-                    short memValue = cache.readWord(loadAddress + operand * 2);
-                    flag = ac > memValue;
-                    pc += 2;
-                    break;
-                case 0x5: // CJMP (program offset addressing)
-                    if (flag) {
-                        pc = loadAddress + operand * 2;
-                    } else {
-                        pc += 2;
-                    }
-                    break;
-                case 0x6: // JMP (program offset addressing)
+    private void run() {
+        while (step()) {
+        }
+    }
+
+    // Executes one instruction and returns false once HALT has run
+    boolean step() {
+        short instruction = memory.readWord(pc);
+        int opcode = (instruction >> 12) & 0xF;
+        int operand = instruction & 0xFFF;
+
+        instructionCount++;
+        opcodeCounts[opcode]++;
+
+        boolean running = true;
+        switch (opcode) {
+            case 0x0: // START
+                pc += 2;
+                break;
+            case 0x1: // LOAD
+                ac = (short) operand;
+                pc += 2;
+                break;
+            case 0x2: // LOADM
+                ac = cache.readWord(loadAddress + operand * 2);
+                pc += 2;
+                break;
+            case 0x3: // STORE
+                cache.writeWord(loadAddress + operand * 2, ac);
+                pc += 2;
+                break;
+            case 0x4: // CMPM
+                short memValue = cache.readWord(loadAddress + operand * 2);
+                flag = ac > memValue;
+                pc += 2;
+                break;
+            case 0x5: // CJMP (program offset addressing)
+                if (flag) {
                     pc = loadAddress + operand * 2;
-                    break;
-                case 0x7: // ADD
-                    ac += operand;
-                    pc += 2;
-                    break;
-                case 0x8: // ADDM
-                    ac += cache.readWord(loadAddress + operand * 2);
-                    pc += 2;
-                    break;
-                case 0x9: // SUB
-                    ac -= operand;
+                } else {
                     pc += 2;
-                    break;
-                case 0xA: // SUBM
-                    ac -= cache.readWord(loadAddress + operand * 2);
-                    pc += 2;
-                    break;
-                case 0xB: // MUL
-                    ac *= operand;
-                    pc += 2;
-                    break;
-                case 0xC: // MULM
-                    ac *= cache.readWord(loadAddress + operand * 2);
-                    pc += 2;
-                    break;
-                case 0xD: // DISP
-                    System.out.println("Value in AC: " + ac);
-                    pc += 2;
-                    break;
-                case 0xE: // HALT
-                    return;
-                default:
-                    throw new IllegalStateException("Invalid opcode: " + opcode);
-            }
+                }
+                break;
+            case 0x6: // JMP (program offset addressing)
+                pc = loadAddress + operand * 2;
+                break;
+            case 0x7: // ADD
+                ac += operand;
+                pc += 2;
+                break;
+            case 0x8: // ADDM
+                ac += cache.readWord(loadAddress + operand * 2);
+                pc += 2;
+                break;
+            case 0x9: // SUB
+                ac -= operand;
+                pc += 2;
+                break;
+            case 0xA: // SUBM
+                ac -= cache.readWord(loadAddress + operand * 2);
+                pc += 2;
+                break;
+            case 0xB: // MUL
+                ac *= operand;
+                pc += 2;
+                break;
+            case 0xC: // MULM
+                ac *= cache.readWord(loadAddress + operand * 2);
+                pc += 2;
+                break;
+            case 0xD: // DISP
+                System.out.println("Value in AC: " + ac);
+                pc += 2;
+                break;
+            case 0xE: // HALT
+                running = false;
+                break;
+            default:
+                throw new IllegalStateException("Invalid opcode: " + opcode);
+        }
+
+        // Sample after the instruction so its own cache access is counted
+        if (sampleInterval != 0 && instructionCount % sampleInterval == 0) {
+            hitRatioSamples.add(new double[] {instructionCount, cache.getHitRatio()});
         }
+        return running;
     }
 
     public double getCacheHitRatio() {
         return cache.getHitRatio();
     }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public int getPC() {
+        return pc;
+    }
+
+    public short getAC() {
+        return ac;
+    }
+
+    public boolean getFlag() {
+        return flag;
+    }
+
+    public long getInstructionCount() {
+        return instructionCount;
+    }
+
+    public long[] getOpcodeCounts() {
+        return opcodeCounts.clone();
+    }
+
+    public long getExecutionNanos() {
+        return executionNanos;
+    }
+
+    // Lets the debug engine add the time spent running between its stops
+    void addExecutionNanos(long nanos) {
+        executionNanos += nanos;
+    }
+
+    // Each sample is {instructions executed, hit ratio in percent}
+    public List<double[]> getHitRatioSamples() {
+        return hitRatioSamples;
+    }
 } 
\ No newline at end of file
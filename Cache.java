@@ -2,96 +2,294 @@ public class Cache {
     private static final int NUM_BLOCKS = 8;
     private static final int BLOCK_SIZE = 2;
     private static final int CACHE_SIZE = NUM_BLOCKS * BLOCK_SIZE;
+
+    // Power-of-two geometries split addresses with shifts and masks instead of / and %
+    private static final boolean POWER_OF_TWO = Integer.bitCount(NUM_BLOCKS) == 1 && Integer.bitCount(BLOCK_SIZE) == 1;
+    private static final int OFFSET_BITS = Integer.numberOfTrailingZeros(BLOCK_SIZE);
+    private static final int TAG_SHIFT = OFFSET_BITS + Integer.numberOfTrailingZeros(NUM_BLOCKS);
+
+    // Outcome of the most recent lookup
+    private static final int HIT = 0;
+    private static final int VICTIM_HIT = 1;
+    private static final int MISS = 2;
     
     private byte[] cache;
     private int[] tags;
     private boolean[] valid;
     private int hits;
     private int misses;
+    private int evictions;
     private Memory memory;
 
+    // Optional fully-associative victim buffer holding blocks evicted from the main cache
+    private int victimEntries;
+    private byte[] victimData;
+    private int[] victimBlocks;  // Block number (address / BLOCK_SIZE) held by each entry
+    private boolean[] victimValid;
+    private long[] victimLastUse;  // For LRU replacement inside the buffer
+    private long useCounter;
+    private int victimHits;
+
+    // When set, a 16-bit access counts as one hit or miss instead of one per byte
+    private boolean countPerWord;
+    private int lastLookup;
+
     public Cache(Memory memory) {
+        this(memory, 0);
+    }
+
+    public Cache(Memory memory, int victimEntries) {
+        if (victimEntries < 0) {
+            throw new IllegalArgumentException("Victim cache size cannot be negative: " + victimEntries);
+        }
         this.memory = memory;
         this.cache = new byte[CACHE_SIZE];
         this.tags = new int[NUM_BLOCKS];
         this.valid = new boolean[NUM_BLOCKS];
         this.hits = 0;
         this.misses = 0;
+        this.evictions = 0;
+        this.victimEntries = victimEntries;
+        this.victimData = new byte[victimEntries * BLOCK_SIZE];
+        this.victimBlocks = new int[victimEntries];
+        this.victimValid = new boolean[victimEntries];
+        this.victimLastUse = new long[victimEntries];
+        this.victimHits = 0;
+    }
+
+    public void setCountPerWord(boolean countPerWord) {
+        this.countPerWord = countPerWord;
     }
 
     private int getBlockIndex(int address) {
+        if (POWER_OF_TWO) {
+            return (address >>> OFFSET_BITS) & (NUM_BLOCKS - 1);
+        }
         return (address / BLOCK_SIZE) % NUM_BLOCKS;
     }
 
     private int getTag(int address) {
+        if (POWER_OF_TWO) {
+            return address >>> TAG_SHIFT;
+        }
         return address / (NUM_BLOCKS * BLOCK_SIZE);
     }
 
     private int getOffset(int address) {
+        if (POWER_OF_TWO) {
+            return address & (BLOCK_SIZE - 1);
+        }
         return address % BLOCK_SIZE;
     }
 
-    public byte read(int address) {
+    private int getBlock(int address) {
+        if (POWER_OF_TWO) {
+            return address >>> OFFSET_BITS;
+        }
+        return address / BLOCK_SIZE;
+    }
+
+    // Makes the block containing address resident and returns its start index in the cache array.
+    // Statistics are only updated when count is set; lastLookup always records the outcome.
+    private int lookup(int address, boolean count) {
         int blockIndex = getBlockIndex(address);
         int tag = getTag(address);
-        int offset = getOffset(address);
+        int lineStart = blockIndex * BLOCK_SIZE;
 
         if (valid[blockIndex] && tags[blockIndex] == tag) {
-            hits++;
-            return cache[blockIndex * BLOCK_SIZE + offset];
+            if (count) hits++;
+            lastLookup = HIT;
+            return lineStart;
         }
 
         // Cache miss
-        misses++;
-        int blockStart = (address / BLOCK_SIZE) * BLOCK_SIZE;
+        if (count) misses++;
+        if (valid[blockIndex]) {
+            evictions++;
+        }
+        int block = getBlock(address);
+        if (victimEntries > 0) {
+            if (swapWithVictim(blockIndex, block)) {
+                if (count) victimHits++;
+                lastLookup = VICTIM_HIT;
+                tags[blockIndex] = tag;
+                valid[blockIndex] = true;
+                return lineStart;
+            }
+            if (valid[blockIndex]) {
+                moveToVictim(blockIndex);
+            }
+        }
+
+        int blockStart = block * BLOCK_SIZE;
         for (int i = 0; i < BLOCK_SIZE; i++) {
-            cache[blockIndex * BLOCK_SIZE + i] = memory.read(blockStart + i);
+            cache[lineStart + i] = memory.read(blockStart + i);
         }
         tags[blockIndex] = tag;
         valid[blockIndex] = true;
+        lastLookup = MISS;
 
-        return cache[blockIndex * BLOCK_SIZE + offset];
+        return lineStart;
     }
 
-    public void write(int address, byte value) {
-        int blockIndex = getBlockIndex(address);
-        int tag = getTag(address);
-        int offset = getOffset(address);
-
-        // Write-through policy: write to both cache and memory
-        memory.write(address, value);
-
-        if (valid[blockIndex] && tags[blockIndex] == tag) {
+    // Counts a word that straddled two blocks as a single access
+    private void countSplitWord(int firstLookup, int secondLookup) {
+        if (firstLookup == HIT && secondLookup == HIT) {
             hits++;
-            cache[blockIndex * BLOCK_SIZE + offset] = value;
         } else {
             misses++;
-            // Update cache block
-            int blockStart = (address / BLOCK_SIZE) * BLOCK_SIZE;
-            for (int i = 0; i < BLOCK_SIZE; i++) {
-                cache[blockIndex * BLOCK_SIZE + i] = memory.read(blockStart + i);
+            if (firstLookup != MISS && secondLookup != MISS) {
+                victimHits++;
+            }
+        }
+    }
+
+    // On a victim hit the requested block and the block it displaces trade places
+    private boolean swapWithVictim(int blockIndex, int block) {
+        for (int v = 0; v < victimEntries; v++) {
+            if (victimValid[v] && victimBlocks[v] == block) {
+                int lineStart = blockIndex * BLOCK_SIZE;
+                int victimStart = v * BLOCK_SIZE;
+                for (int i = 0; i < BLOCK_SIZE; i++) {
+                    byte displaced = cache[lineStart + i];
+                    cache[lineStart + i] = victimData[victimStart + i];
+                    victimData[victimStart + i] = displaced;
+                }
+                if (valid[blockIndex]) {
+                    victimBlocks[v] = tags[blockIndex] * NUM_BLOCKS + blockIndex;
+                    victimLastUse[v] = ++useCounter;
+                } else {
+                    victimValid[v] = false;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Write-through keeps evicted blocks clean, so they can be buffered without a write-back
+    private void moveToVictim(int blockIndex) {
+        int slot = 0;
+        for (int v = 0; v < victimEntries; v++) {
+            if (!victimValid[v]) {
+                slot = v;
+                break;
+            }
+            if (victimLastUse[v] < victimLastUse[slot]) {
+                slot = v;
             }
-            tags[blockIndex] = tag;
-            valid[blockIndex] = true;
-            cache[blockIndex * BLOCK_SIZE + offset] = value;
         }
+
+        System.arraycopy(cache, blockIndex * BLOCK_SIZE, victimData, slot * BLOCK_SIZE, BLOCK_SIZE);
+        victimBlocks[slot] = tags[blockIndex] * NUM_BLOCKS + blockIndex;
+        victimValid[slot] = true;
+        victimLastUse[slot] = ++useCounter;
+    }
+
+    public byte read(int address) {
+        int lineStart = lookup(address, true);
+        return cache[lineStart + getOffset(address)];
+    }
+
+    public void write(int address, byte value) {
+        // Write-through policy: write to both cache and memory
+        memory.write(address, value);
+
+        int lineStart = lookup(address, true);
+        cache[lineStart + getOffset(address)] = value;
     }
 
     // 16-bit word read (little-endian)
     public short readWord(int address) {
-        int low = read(address) & 0xFF;
-        int high = read(address + 1) & 0xFF;
+        int offset = getOffset(address);
+        if (offset + 1 < BLOCK_SIZE) {
+            // Both bytes share a block: one lookup serves the whole word
+            int lineStart = lookup(address, true);
+            if (!countPerWord) {
+                hits++;  // The high byte always hits once the low byte is resident
+            }
+            int low = cache[lineStart + offset] & 0xFF;
+            int high = cache[lineStart + offset + 1] & 0xFF;
+            return (short) ((high << 8) | low);
+        }
+
+        if (!countPerWord) {
+            int low = read(address) & 0xFF;
+            int high = read(address + 1) & 0xFF;
+            return (short) ((high << 8) | low);
+        }
+        int low = cache[lookup(address, false) + offset] & 0xFF;
+        int firstLookup = lastLookup;
+        int high = cache[lookup(address + 1, false)] & 0xFF;
+        countSplitWord(firstLookup, lastLookup);
         return (short) ((high << 8) | low);
     }
 
     // 16-bit word write (little-endian)
     public void writeWord(int address, short value) {
-        write(address, (byte) (value & 0xFF));
-        write(address + 1, (byte) ((value >> 8) & 0xFF));
+        byte low = (byte) (value & 0xFF);
+        byte high = (byte) ((value >> 8) & 0xFF);
+        int offset = getOffset(address);
+        if (offset + 1 < BLOCK_SIZE) {
+            // Write-through first, so a miss fills the block with the new word
+            memory.write(address, low);
+            memory.write(address + 1, high);
+            int lineStart = lookup(address, true);
+            if (!countPerWord) {
+                hits++;
+            }
+            cache[lineStart + offset] = low;
+            cache[lineStart + offset + 1] = high;
+            return;
+        }
+
+        if (!countPerWord) {
+            write(address, low);
+            write(address + 1, high);
+            return;
+        }
+        memory.write(address, low);
+        memory.write(address + 1, high);
+        cache[lookup(address, false) + offset] = low;
+        int firstLookup = lastLookup;
+        cache[lookup(address + 1, false)] = high;
+        countSplitWord(firstLookup, lastLookup);
     }
 
     public double getHitRatio() {
         int total = hits + misses;
         return total == 0 ? 0 : (double) hits / total * 100;
     }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    // Valid blocks displaced from the main cache, including those kept in the victim buffer
+    public int getEvictions() {
+        return evictions;
+    }
+
+    public boolean hasVictimCache() {
+        return victimEntries > 0;
+    }
+
+    public int getVictimHits() {
+        return victimHits;
+    }
+
+    // Share of main-cache misses that the victim buffer served
+    public double getVictimHitRatio() {
+        return misses == 0 ? 0 : (double) victimHits / misses * 100;
+    }
+
+    // Hit ratio counting victim hits as hits, i.e. what a memory access actually sees
+    public double getEffectiveHitRatio() {
+        int total = hits + misses;
+        return total == 0 ? 0 : (double) (hits + victimHits) / total * 100;
+    }
 } 
\ No newline at end of file
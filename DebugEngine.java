@@ -0,0 +1,83 @@
+import java.util.BitSet;
+
+// Separate interpreter loop for debugging. Breakpoints are checked here between instructions
+// and watchpoints are trapped by WatchedMemory and WatchedCache, so CPUEmulator.execute()
+// stays check-free.
+public class DebugEngine {
+    public enum Stop { BREAKPOINT, WATCHPOINT, HALTED }
+
+    private CPUEmulator emulator;
+    private WatchedMemory memory;
+    private BitSet breakpoints;
+    private int resumePC = -1;  // Breakpoint we stopped at, skipped once when resuming
+
+    public DebugEngine(int loadAddress, int initialPC, int victimCacheEntries) {
+        this.memory = new WatchedMemory();
+        this.emulator = new CPUEmulator(loadAddress, initialPC, memory, new WatchedCache(memory, victimCacheEntries));
+        this.breakpoints = new BitSet();
+    }
+
+    public void loadProgram(String[] instructions) {
+        memory.setArmed(false);
+        try {
+            emulator.loadProgram(instructions);
+        } finally {
+            memory.setArmed(true);
+        }
+    }
+
+    public void addBreakpoint(int pc) {
+        breakpoints.set(pc);
+    }
+
+    public void removeBreakpoint(int pc) {
+        breakpoints.clear(pc);
+    }
+
+    // Traps stores, data loads whether they hit or miss the cache, and instruction fetches
+    public void addWatchpoint(int address) {
+        memory.watch(address);
+    }
+
+    public void removeWatchpoint(int address) {
+        memory.unwatch(address);
+    }
+
+    // Runs until a breakpoint, a watchpoint or HALT; call again to resume. Only the time spent
+    // running counts towards the emulator's execution time, not the time between calls.
+    public Stop run() {
+        long start = System.nanoTime();
+        try {
+            return runToStop();
+        } finally {
+            emulator.addExecutionNanos(System.nanoTime() - start);
+        }
+    }
+
+    private Stop runToStop() {
+        while (true) {
+            int pc = emulator.getPC();
+            if (breakpoints.get(pc) && pc != resumePC) {
+                resumePC = pc;
+                return Stop.BREAKPOINT;
+            }
+            resumePC = -1;
+
+            boolean running = emulator.step();
+            if (memory.takeTrap()) {
+                return running ? Stop.WATCHPOINT : Stop.HALTED;
+            }
+            if (!running) {
+                return Stop.HALTED;
+            }
+        }
+    }
+
+    public CPUEmulator getEmulator() {
+        return emulator;
+    }
+
+    public WatchedMemory getMemory() {
+        return memory;
+    }
+}
@@ -0,0 +1,118 @@
+package players;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Named evaluation constants of one player, e.g. the weights of the terms in its
+ * position evaluation. Players start from their hand-picked defaults and replace any
+ * value found in WeightTuner's output for them, a properties file with one name=value
+ * line per weight. Instances are immutable.
+ */
+public final class EvaluationWeights {
+    // Where players look for tuned weights, unless the players.weights system property says otherwise
+    public static final String DEFAULT_DIRECTORY = "weights";
+
+    private final String[] names;
+    private final double[] values;
+
+    public EvaluationWeights(String[] names, double[] values) {
+        if (names.length != values.length) {
+            throw new IllegalArgumentException(names.length + " names for " + values.length + " weights");
+        }
+        this.names = names.clone();
+        this.values = values.clone();
+    }
+
+    /**
+     * The defaults with every weight that the player's file in the weights directory
+     * sets. A missing or unreadable file leaves the defaults as they are, so a player
+     * never fails to start because of it.
+     */
+    public static EvaluationWeights load(String player, EvaluationWeights defaults) {
+        Path path = path(directory(), player);
+        if (!Files.isReadable(path)) {
+            return defaults;
+        }
+        try {
+            return defaults.overriddenBy(path);
+        } catch (IOException | NumberFormatException e) {
+            return defaults;
+        }
+    }
+
+    public static Path directory() {
+        return Paths.get(System.getProperty("players.weights", DEFAULT_DIRECTORY));
+    }
+
+    public static Path path(Path directory, String player) {
+        return directory.resolve(player + ".properties");
+    }
+
+    // These weights with the values set in the given file; names the file does not set keep their value
+    public EvaluationWeights overriddenBy(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(path)) {
+            properties.load(in);
+        }
+        double[] loaded = values.clone();
+        for (int i = 0; i < names.length; i++) {
+            String value = properties.getProperty(names[i]);
+            if (value != null) {
+                loaded[i] = Double.parseDouble(value.trim());
+            }
+        }
+        return new EvaluationWeights(names, loaded);
+    }
+
+    public void save(Path path, String comment) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer out = Files.newBufferedWriter(path)) {
+            if (comment != null) {
+                out.write("# " + comment + System.lineSeparator());
+            }
+            for (int i = 0; i < names.length; i++) {
+                // Double.toString round-trips exactly, so a saved file reloads to the same weights
+                out.write(names[i] + "=" + values[i] + System.lineSeparator());
+            }
+        }
+    }
+
+    public EvaluationWeights withValues(double[] newValues) {
+        return new EvaluationWeights(names, newValues);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public String name(int index) {
+        return names[index];
+    }
+
+    public double get(int index) {
+        return values[index];
+    }
+
+    public double[] values() {
+        return values.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) text.append(", ");
+            text.append(names[i]).append('=').append(String.format("%.4f", values[i]));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,18 @@
+package players;
+
+/**
+ * Heuristic value of a search position, plugged into AlphaBetaSearch. An evaluator
+ * keeps no state of its own between calls, so one instance can serve the searches of
+ * several threads at once.
+ */
+interface Evaluator {
+    // Turns on the incremental counts of a search board that the evaluator reads; called once per board
+    default void track(BitBoard state) {
+    }
+
+    // Value of the position, higher is better
+    double evaluate(BitBoard state);
+
+    // Ordering score of a legal move from the position, higher first; computed without making the move
+    double moveScore(BitBoard state, int direction);
+}
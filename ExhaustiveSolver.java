@@ -0,0 +1,116 @@
+package players;
+
+/**
+ * Depth-first solver for the longest continuation of a position, used offline by
+ * BookGenerator. Children are tried in Warnsdorff order (fewest onward moves first),
+ * which finds long paths early, and a branch is cut when the score plus the cells it
+ * can still reach (BitBoard.reachableCells) cannot beat the best line found so far.
+ * A node limit bounds the work; a result found within it is exact.
+ */
+final class ExhaustiveSolver {
+    private final MoveTable table;
+    private final BitBoard state;
+    private final int[][] order;
+    private final int[][] degrees;
+    private long nodeLimit;
+    private long nodes;
+
+    private int bestDirection;
+    private int bestScore;
+    private boolean exact;
+
+    ExhaustiveSolver(MoveTable table) {
+        this.table = table;
+        this.state = new BitBoard(table);
+        this.order = new int[table.cells + 1][table.directions];
+        this.degrees = new int[table.cells + 1][table.directions];
+    }
+
+    // Solves position (left unchanged); returns false if it has no legal move
+    boolean solve(BitBoard position, long nodeLimit) {
+        state.copyFrom(position);
+        this.nodeLimit = nodeLimit;
+        this.nodes = 0;
+        this.bestDirection = -1;
+        this.bestScore = state.getScore();
+
+        int count = orderMoves(0);
+        int bound = state.getScore() + state.reachableCells();
+        for (int i = 0; i < count && bestScore < bound; i++) {
+            int direction = order[0][i];
+            state.make(direction);
+            int score = search(1, bestScore);
+            state.unmake();
+            if (score > bestScore || bestDirection < 0) {
+                bestScore = Math.max(score, bestScore);
+                bestDirection = direction;
+            }
+        }
+        exact = nodes <= nodeLimit;
+        return bestDirection >= 0;
+    }
+
+    int getBestDirection() {
+        return bestDirection;
+    }
+
+    // Final score of the best line found
+    int getBestScore() {
+        return bestScore;
+    }
+
+    boolean isExact() {
+        return exact;
+    }
+
+    long getNodes() {
+        return nodes;
+    }
+
+    // Best final score from the current state, or any value <= alpha if alpha cannot be beaten
+    private int search(int ply, int alpha) {
+        nodes++;
+        if (state.legalMoves() == 0 || nodes > nodeLimit) {
+            return state.getScore();
+        }
+        int bound = state.getScore() + state.reachableCells();
+        if (bound <= alpha) {
+            return bound;
+        }
+
+        int best = state.getScore();
+        int count = orderMoves(ply);
+        for (int i = 0; i < count; i++) {
+            state.make(order[ply][i]);
+            int score = search(ply + 1, Math.max(alpha, best));
+            state.unmake();
+            if (score > best) {
+                best = score;
+                if (best == bound) {
+                    break;  // Every reachable cell visited: nothing can do better
+                }
+            }
+        }
+        return best;
+    }
+
+    // Fills order[ply] with the legal moves, fewest onward moves first
+    private int orderMoves(int ply) {
+        int[] moves = order[ply];
+        int[] degree = degrees[ply];
+        int count = 0;
+        for (int legal = state.legalMoves(); legal != 0; legal &= legal - 1) {
+            int direction = Integer.numberOfTrailingZeros(legal);
+            int d = state.degree(state.target(direction));
+            int i = count++;
+            while (i > 0 && degree[i - 1] > d) {
+                moves[i] = moves[i - 1];
+                degree[i] = degree[i - 1];
+                i--;
+            }
+            moves[i] = direction;
+            degree[i] = d;
+        }
+        return count;
+    }
+}
@@ -5,13 +5,42 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Main {
+    private static final String USAGE = "Usage: java Main program.txt config.txt [--victim=N] [--report=out.json|out.csv] [--sample=N] [--count-words]\n"
+            + "       [--break=0xADDR]... [--watch=0xADDR]...";
+
     public static void main(String[] args) {
-        if (args.length != 2) {
-            System.out.println("Usage: java Main program.txt config.txt");
+        if (args.length < 2) {
+            System.out.println(USAGE);
             return;
         }
 
         try {
+            // Optional flags after the two input files
+            int victimEntries = 0;
+            String reportPath = null;
+            int sampleInterval = 0;
+            boolean countPerWord = false;
+            List<Integer> breakpoints = new ArrayList<>();
+            List<Integer> watchpoints = new ArrayList<>();
+            for (int i = 2; i < args.length; i++) {
+                if (args[i].startsWith("--victim=")) {
+                    victimEntries = Integer.parseInt(args[i].substring("--victim=".length()));
+                } else if (args[i].startsWith("--report=")) {
+                    reportPath = args[i].substring("--report=".length());
+                } else if (args[i].startsWith("--sample=")) {
+                    sampleInterval = Integer.parseInt(args[i].substring("--sample=".length()));
+                } else if (args[i].equals("--count-words")) {
+                    countPerWord = true;
+                } else if (args[i].startsWith("--break=")) {
+                    breakpoints.add(Integer.parseInt(args[i].substring("--break=".length()).replace("0x", ""), 16));
+                } else if (args[i].startsWith("--watch=")) {
+                    watchpoints.add(Integer.parseInt(args[i].substring("--watch=".length()).replace("0x", ""), 16));
+                } else {
+                    System.out.println(USAGE);
+                    return;
+                }
+            }
+
             // Read config file
             BufferedReader configReader = new BufferedReader(new FileReader(args[1]));
             String loadAddrStr = configReader.readLine().trim();
@@ -31,13 +60,58 @@ public class Main {
             }
             programReader.close();
 
-            // Create and run emulator
-            CPUEmulator emulator = new CPUEmulator(loadAddress, initialPC);
-            emulator.loadProgram(instructions.toArray(new String[0]));
-            emulator.execute();
+            // Create the emulator; only the options can be rejected here
+            CPUEmulator emulator;
+            DebugEngine debugger = null;
+            try {
+                if (breakpoints.isEmpty() && watchpoints.isEmpty()) {
+                    emulator = new CPUEmulator(loadAddress, initialPC, victimEntries);
+                } else {
+                    debugger = new DebugEngine(loadAddress, initialPC, victimEntries);
+                    emulator = debugger.getEmulator();
+                    for (int address : breakpoints) {
+                        debugger.addBreakpoint(address);
+                    }
+                    for (int address : watchpoints) {
+                        debugger.addWatchpoint(address);
+                    }
+                }
+                emulator.setHitRatioSampling(sampleInterval);
+                emulator.getCache().setCountPerWord(countPerWord);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Invalid option: " + e.getMessage());
+                return;
+            }
+
+            // Load and run the program; errors raised by the program itself end the run
+            try {
+                if (debugger == null) {
+                    emulator.loadProgram(instructions.toArray(new String[0]));
+                    emulator.execute();
+                } else {
+                    debugger.loadProgram(instructions.toArray(new String[0]));
+                    debug(debugger);
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Error parsing program: " + e.getMessage());
+                return;
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                System.err.println("Execution error: " + e.getMessage());
+                return;
+            }
 
             // Print cache statistics
             System.out.printf("Cache hit ratio: %.2f%%\n", emulator.getCacheHitRatio());
+            Cache cache = emulator.getCache();
+            if (cache.hasVictimCache()) {
+                System.out.printf("Victim cache hits: %d (%.2f%% of misses)\n",
+                        cache.getVictimHits(), cache.getVictimHitRatio());
+                System.out.printf("Effective hit ratio: %.2f%%\n", cache.getEffectiveHitRatio());
+            }
+
+            if (reportPath != null) {
+                new RunReport(emulator).write(reportPath);
+            }
 
         } catch (IOException e) {
             System.err.println("Error reading files: " + e.getMessage());
@@ -45,4 +119,20 @@ public class Main {
             System.err.println("Error parsing numbers: " + e.getMessage());
         }
     }
+
+    // Runs to HALT, printing the machine state at every breakpoint and watchpoint
+    private static void debug(DebugEngine debugger) {
+        CPUEmulator emulator = debugger.getEmulator();
+        DebugEngine.Stop stop;
+        while ((stop = debugger.run()) != DebugEngine.Stop.HALTED) {
+            if (stop == DebugEngine.Stop.BREAKPOINT) {
+                System.out.printf("Breakpoint at 0x%04X: AC=%d flag=%b\n",
+                        emulator.getPC(), emulator.getAC(), emulator.getFlag());
+            } else {
+                WatchedMemory memory = debugger.getMemory();
+                System.out.printf("Watchpoint 0x%04X %s 0x%02X, next PC 0x%04X\n", memory.getTrapAddress(),
+                        memory.wasTrapWrite() ? "written" : "read", memory.getTrapValue() & 0xFF, emulator.getPC());
+            }
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,308 @@
+package players;
+import game.*;
+
+import java.util.SplittableRandom;
+
+/**
+ * UCT search tree kept in a pool of primitive arrays (children as first-child /
+ * next-sibling links). Children are added by progressive widening: a node gets a new
+ * child only when its visit count allows one more, trying its lowest-onward-mobility
+ * moves first (Warnsdorff order), so rollouts concentrate on promising lines. As in
+ * single-player MCTS, selection mixes a child's mean score with the best score seen
+ * through it, since one good line is all a single player needs.
+ * After a move is chosen the subtree below it is compacted to the front of the pool
+ * and becomes the root of the next search.
+ */
+final class MctsTree {
+    private static final int NONE = -1;
+    private static final double EXPLORATION = 0.7;
+    private static final double BEST_SCORE_WEIGHT = 0.5;
+    private static final double WIDENING_BASE = 1.0;
+    private static final double WIDENING_EXPONENT = 0.5;
+
+    private final MoveTable table;
+    private final int capacity;
+    private int size;
+
+    // Node pool
+    private int[] firstChild;
+    private int[] nextSibling;
+    private int[] childCount;
+    private int[] visits;
+    private int[] untried;  // Legal move mask not yet expanded
+    private byte[] direction;  // Move that leads from the parent to this node
+    private double[] scoreSum;  // Sum of final rollout scores through this node
+    private int[] bestScore;  // Highest final rollout score through this node
+
+    // Second pool that compaction copies into; the two are swapped afterwards
+    private int[] spareFirstChild;
+    private int[] spareNextSibling;
+    private int[] spareChildCount;
+    private int[] spareVisits;
+    private int[] spareUntried;
+    private byte[] spareDirection;
+    private double[] spareScoreSum;
+    private int[] spareBestScore;
+
+    private final BitBoard state;  // Root position; make/unmake while descending
+    private final BitBoard rolloutBoard;
+    private final int[] path;
+    private final int[] queue;
+    private final SplittableRandom random;
+    private long rootHash;
+    private int rootScore;
+    // Set from another thread to end search() early (pondering)
+    private volatile boolean stopRequested;
+    // Counters since the last setRoot(); a reused tree counts as a cache hit
+    private final SearchStats stats = new SearchStats();
+
+    MctsTree(MoveTable table, int capacity) {
+        this.table = table;
+        this.capacity = capacity;
+        this.firstChild = new int[capacity];
+        this.nextSibling = new int[capacity];
+        this.childCount = new int[capacity];
+        this.visits = new int[capacity];
+        this.untried = new int[capacity];
+        this.direction = new byte[capacity];
+        this.scoreSum = new double[capacity];
+        this.bestScore = new int[capacity];
+        this.state = new BitBoard(table);
+        this.rolloutBoard = new BitBoard(table);
+        this.path = new int[table.cells + 1];
+        this.queue = new int[capacity];
+        this.random = new SplittableRandom();
+    }
+
+    // Makes the board's position the root, keeping the tree if it already is the root
+    void setRoot(Board board) {
+        state.load(board);
+        rootScore = state.getScore();
+        stats.reset();
+        stats.cacheProbes++;
+        if (size > 0 && state.getHash() == rootHash) {
+            stats.cacheHits++;
+            return;
+        }
+        size = 0;
+        rootHash = state.getHash();
+        newNode(0, state.legalMoves());
+    }
+
+    // Drops the tree, so that the next setRoot() starts a new one even on the same position
+    void clear() {
+        size = 0;
+    }
+
+    // Searches until the deadline, or until requestStop() is called; stats().stopReason tells which
+    void search(long deadline) {
+        if (isRootTerminal()) {
+            // Nothing to search; playouts from here would all score the root itself
+            stats.stopReason = SearchStats.COMPLETED;
+            return;
+        }
+        do {
+            iterate();
+        } while (!stopRequested && System.nanoTime() - deadline < 0);
+        stats.stopReason = stopRequested ? SearchStats.STOPPED : SearchStats.HARD_LIMIT;
+    }
+
+    // Safe from any thread; the flag stays set until resetStop()
+    void requestStop() {
+        stopRequested = true;
+    }
+
+    void resetStop() {
+        stopRequested = false;
+    }
+
+    private void iterate() {
+        int node = 0;
+        int depth = 0;
+        path[depth++] = node;
+        while (true) {
+            if (untried[node] != 0 && childCount[node] < allowedChildren(visits[node])) {
+                int child = expand(node);
+                if (child != NONE) {
+                    path[depth++] = child;
+                    break;
+                }
+            }
+            if (firstChild[node] == NONE) {
+                break;
+            }
+            node = selectChild(node);
+            state.make(direction[node]);
+            path[depth++] = node;
+        }
+
+        rolloutBoard.copyFrom(state);
+        int score = RolloutEngine.rollout(rolloutBoard, random);
+        for (int i = 0; i < depth; i++) {
+            visits[path[i]]++;
+            scoreSum[path[i]] += score;
+            bestScore[path[i]] = Math.max(bestScore[path[i]], score);
+        }
+        stats.rollouts++;
+        stats.nodes += score - rootScore;
+        stats.depth = Math.max(stats.depth, depth - 1);
+        for (int i = 1; i < depth; i++) {
+            state.unmake();
+        }
+    }
+
+    private static int allowedChildren(int visits) {
+        return 1 + (int) (WIDENING_BASE * Math.pow(visits, WIDENING_EXPONENT));
+    }
+
+    // Adds the untried move with the fewest onward moves and leaves it applied to state
+    private int expand(int node) {
+        if (size == capacity) {
+            return NONE;
+        }
+        int chosen = -1;
+        int fewest = Integer.MAX_VALUE;
+        for (int moves = untried[node]; moves != 0; moves &= moves - 1) {
+            int d = Integer.numberOfTrailingZeros(moves);
+            int onward = state.degree(state.target(d));
+            if (onward < fewest) {
+                fewest = onward;
+                chosen = d;
+            }
+        }
+
+        untried[node] &= ~(1 << chosen);
+        state.make(chosen);
+        int child = newNode(chosen, state.legalMoves());
+        nextSibling[child] = firstChild[node];
+        firstChild[node] = child;
+        childCount[node]++;
+        return child;
+    }
+
+    private int selectChild(int node) {
+        // Rewards are the final scores rescaled to the cells still free at the root
+        double free = Math.max(1, table.cells - rootScore);
+        double logVisits = Math.log(visits[node]);
+        int best = NONE;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            double mean = scoreSum[child] / visits[child];
+            double exploit = ((1 - BEST_SCORE_WEIGHT) * mean + BEST_SCORE_WEIGHT * bestScore[child] - rootScore) / free;
+            double value = exploit + EXPLORATION * Math.sqrt(logVisits / visits[child]);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    private int newNode(int move, int legalMoves) {
+        int node = size++;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        childCount[node] = 0;
+        visits[node] = 0;
+        untried[node] = legalMoves;
+        direction[node] = (byte) move;
+        scoreSum[node] = 0;
+        bestScore[node] = 0;
+        return node;
+    }
+
+    // Most visited root move; falls back to any legal move if nothing was searched
+    int bestDirection() {
+        int best = NONE;
+        for (int child = firstChild[0]; child != NONE; child = nextSibling[child]) {
+            if (best == NONE || visits[child] > visits[best]) {
+                best = child;
+            }
+        }
+        return best == NONE ? Integer.numberOfTrailingZeros(state.legalMoves()) : direction[best];
+    }
+
+    SearchStats stats() {
+        return stats;
+    }
+
+    int rootVisits() {
+        return visits[0];
+    }
+
+    boolean isRootTerminal() {
+        return state.legalMoves() == 0;
+    }
+
+    // Re-roots the tree at the child reached by the chosen move, dropping everything else
+    void advance(int move) {
+        int newRoot = NONE;
+        for (int child = firstChild[0]; child != NONE; child = nextSibling[child]) {
+            if (direction[child] == move) {
+                newRoot = child;
+            }
+        }
+        state.apply(move);
+        rootHash = state.getHash();
+        rootScore = state.getScore();
+        if (newRoot == NONE) {
+            size = 0;
+            newNode(0, state.legalMoves());
+            return;
+        }
+        compact(newRoot);
+    }
+
+    // Breadth-first copy of the subtree under root into the spare pool, then swap pools
+    private void compact(int root) {
+        if (spareFirstChild == null) {
+            spareFirstChild = new int[capacity];
+            spareNextSibling = new int[capacity];
+            spareChildCount = new int[capacity];
+            spareVisits = new int[capacity];
+            spareUntried = new int[capacity];
+            spareDirection = new byte[capacity];
+            spareScoreSum = new double[capacity];
+            spareBestScore = new int[capacity];
+        }
+
+        // queue[i] is the old index of the node copied to new index i
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = root;
+        spareNextSibling[0] = NONE;
+        while (head < tail) {
+            int newIndex = head;
+            int old = queue[head++];
+            spareChildCount[newIndex] = childCount[old];
+            spareVisits[newIndex] = visits[old];
+            spareUntried[newIndex] = untried[old];
+            spareDirection[newIndex] = direction[old];
+            spareScoreSum[newIndex] = scoreSum[old];
+            spareBestScore[newIndex] = bestScore[old];
+            spareFirstChild[newIndex] = NONE;
+            int previous = NONE;
+            for (int child = firstChild[old]; child != NONE; child = nextSibling[child]) {
+                int copy = tail;
+                queue[tail++] = child;
+                spareNextSibling[copy] = NONE;
+                if (previous == NONE) {
+                    spareFirstChild[newIndex] = copy;
+                } else {
+                    spareNextSibling[previous] = copy;
+                }
+                previous = copy;
+            }
+        }
+        size = tail;
+
+        int[] ints = firstChild; firstChild = spareFirstChild; spareFirstChild = ints;
+        ints = nextSibling; nextSibling = spareNextSibling; spareNextSibling = ints;
+        ints = childCount; childCount = spareChildCount; spareChildCount = ints;
+        ints = visits; visits = spareVisits; spareVisits = ints;
+        ints = untried; untried = spareUntried; spareUntried = ints;
+        ints = bestScore; bestScore = spareBestScore; spareBestScore = ints;
+        byte[] bytes = direction; direction = spareDirection; spareDirection = bytes;
+        double[] doubles = scoreSum; scoreSum = spareScoreSum; spareScoreSum = doubles;
+    }
+}
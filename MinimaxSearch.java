@@ -0,0 +1,293 @@
+package players;
+import game.*;
+
+/**
+ * The look-ahead shared by Player1607, Player1111 and Player20220808025. A node is worth
+ * the best child value (minus a penalty for reversing the previous move) plus its own
+ * mobility; leaves are worth score + 2 * mobility. Root moves additionally pay a penalty
+ * for landing within two cells of the edge. The search runs in place on one BitBoard
+ * with make/unmake, and each node's legal moves are a single int mask, so nothing is
+ * allocated per node and mobility is computed once per node. The board keeps onward
+ * degrees up to date, so the leaves below a node are scored from the degrees of its
+ * move targets without being made.
+ *
+ * Subtrees that cannot beat the best sibling found so far are skipped (branch and bound,
+ * see upperBound()). The bound is admissible, so the chosen moves are exactly those of
+ * the full search; it is loose in open positions and cuts most in pockets and endgames.
+ * Where children can be skipped they are tried in history order (see MoveOrdering), so
+ * that a high sibling value is usually found first.
+ */
+final class MinimaxSearch {
+    static final int REVERSE_PENALTY = 10;
+    static final int EDGE_PENALTY = 5;
+    // Shallower subtrees are cheaper to search than to bound with a flood fill
+    private static final int BOUND_MIN_DEPTH = 3;
+
+    private final MoveTable table;
+    private final BitBoard state;
+    // Root moves in the board's order, so that ties go to the move the board lists first
+    private final int[] rootMoves;
+    private int rootMoveCount;
+    private SearchClock clock;  // Null for searches without a time limit
+    // Counters of the searches since the last setRoot(); only the searching thread writes them
+    private final SearchStats stats = new SearchStats();
+    private final MoveOrdering ordering;
+    private long prunedCount;
+
+    MinimaxSearch(MoveTable table) {
+        this.table = table;
+        this.state = new BitBoard(table);
+        this.state.trackDegrees();
+        this.rootMoves = new int[table.directions];
+        this.ordering = new MoveOrdering(table);
+    }
+
+    void setRoot(Board board) {
+        state.load(board);
+        stats.reset();
+        ordering.age();
+        rootMoveCount = 0;
+        for (Move move : board.getPossibleMoves()) {
+            rootMoves[rootMoveCount++] = table.direction(move);
+        }
+    }
+
+    // Best root move searched depth plies below each move, without a time limit
+    int bestMove(int depth, int avoidDirection) {
+        clock = null;
+        ordering.ensureDepth(depth);
+        int best = searchRoot(depth, avoidDirection, -1);
+        stats.depth = depth + 1;
+        return best;
+    }
+
+    /**
+     * Anytime search: deepens one ply at a time up to maxDepth and returns the best move
+     * of the deepest iteration that produced a comparable result. The previous best move
+     * is searched first, so an iteration cut short by the clock still counts if that
+     * move finished. Among equal values the move listed first by the board still wins,
+     * as in bestMove(). No iteration starts once the clock's soft limit has passed.
+     */
+    int iterativeDeepening(int maxDepth, int avoidDirection, SearchClock clock) {
+        this.clock = clock;
+        ordering.ensureDepth(maxDepth);
+        int best = rootMoves[0];
+        int freeCells = table.cells - state.getScore();
+        for (int depth = 1; depth <= maxDepth && depth <= freeCells; depth++) {
+            if (depth > 1 && clock.isSoftExpired()) {
+                stats.stopReason = SearchStats.SOFT_LIMIT;
+                break;
+            }
+            int iterationBest = searchRoot(depth, avoidDirection, best);
+            if (iterationBest >= 0) {
+                best = iterationBest;
+            }
+            if (clock.isExpired()) {
+                stats.stopReason = SearchStats.HARD_LIMIT;
+                break;
+            }
+            stats.depth = depth + 1;
+        }
+        return best;
+    }
+
+    /**
+     * Returns the best root direction, or -1 if the clock expired before the first move
+     * finished. firstDirection only changes the search order: of the moves with the best
+     * value, the one earliest in the board's order is returned.
+     */
+    private int searchRoot(int depth, int avoidDirection, int firstDirection) {
+        int best = -1;
+        int bestIndex = rootMoveCount;
+        int bestValue = Integer.MIN_VALUE;
+        if (firstDirection >= 0) {
+            bestValue = rootValue(firstDirection, depth, avoidDirection, Integer.MIN_VALUE);
+            if (expired()) {
+                return -1;
+            }
+            best = firstDirection;
+            bestIndex = rootIndex(firstDirection);
+        }
+
+        for (int i = 0; i < rootMoveCount; i++) {
+            int direction = rootMoves[i];
+            if (direction == firstDirection) {
+                continue;
+            }
+            // A move listed before the current best also wins by tying it, so it may only be skipped below it
+            boolean winsTies = i < bestIndex;
+            int threshold = winsTies && bestValue != Integer.MIN_VALUE ? bestValue - 1 : bestValue;
+            int value = rootValue(direction, depth, avoidDirection, threshold);
+            if (expired()) {
+                break;
+            }
+            if (value > bestValue || (winsTies && value == bestValue && value != Integer.MIN_VALUE)) {
+                bestValue = value;
+                best = direction;
+                bestIndex = i;
+            }
+        }
+        return best;
+    }
+
+    private int rootIndex(int direction) {
+        for (int i = 0; i < rootMoveCount; i++) {
+            if (rootMoves[i] == direction) {
+                return i;
+            }
+        }
+        return rootMoveCount;
+    }
+
+    // Value of one root move, or Integer.MIN_VALUE if it provably cannot exceed bestValue
+    private int rootValue(int direction, int depth, int avoidDirection, int bestValue) {
+        state.make(direction);
+        if (cannotExceed(depth, bestValue)) {
+            state.unmake();
+            return Integer.MIN_VALUE;
+        }
+        int value = search(depth, direction);
+        state.unmake();
+
+        if (avoidDirection >= 0 && table.isReverse(avoidDirection, direction)) {
+            value -= REVERSE_PENALTY;
+        }
+        int newRow = state.getPlayerRow() + table.dRow[direction];
+        int newCol = state.getPlayerCol() + table.dCol[direction];
+        int boardSize = state.getSize();
+        if (newRow < 2 || newRow > boardSize - 3 || newCol < 2 || newCol > boardSize - 3) {
+            value -= EDGE_PENALTY;
+        }
+        return value;
+    }
+
+    SearchStats stats() {
+        return stats;
+    }
+
+    // Subtrees skipped by the bound in all searches so far
+    long getPrunedCount() {
+        return prunedCount;
+    }
+
+    private int search(int depth, int previousDirection) {
+        stats.nodes++;
+        int moves = state.legalMoves();
+        if (depth == 0 || moves == 0 || expired()) {
+            return evaluate(moves);
+        }
+        if (depth == 1) {
+            return bestLeaf(moves, previousDirection) + Integer.bitCount(moves);
+        }
+
+        int count = ordering.load(depth, moves);
+        int[] order = ordering.moves(depth);
+        int cell = state.getPlayerRow() * state.getSize() + state.getPlayerCol();
+        boolean prunable = depth - 1 >= BOUND_MIN_DEPTH;
+        if (prunable) {
+            orderMoves(depth, count, cell);
+        }
+
+        int best = Integer.MIN_VALUE;
+        int bestDirection = -1;
+        for (int i = 0; i < count; i++) {
+            int direction = order[i];
+            state.make(direction);
+            if (cannotExceed(depth - 1, best)) {
+                state.unmake();
+                continue;
+            }
+            int score = search(depth - 1, direction);
+            state.unmake();
+            if (table.isReverse(previousDirection, direction)) {
+                score -= REVERSE_PENALTY;
+            }
+            if (score > best) {
+                best = score;
+                bestDirection = direction;
+            }
+        }
+        if (prunable && bestDirection >= 0) {
+            ordering.rewardBest(cell, bestDirection, depth);
+        }
+
+        // Mobility bonus for the node itself
+        return best + Integer.bitCount(moves);
+    }
+
+    // History score first, then the mobility the move leaves (leaf values grow with it)
+    private void orderMoves(int depth, int count, int cell) {
+        int[] order = ordering.moves(depth);
+        double[] keys = ordering.scores(depth);
+        for (int i = 0; i < count; i++) {
+            int direction = order[i];
+            keys[i] = (double) ordering.history(cell, direction) * (table.directions + 1)
+                    + state.degree(state.target(direction));
+        }
+        ordering.sort(depth, count);
+    }
+
+    // Best search(0) value over the moves, less reverse penalties; a leaf's mobility is the degree of its cell
+    private int bestLeaf(int moves, int previousDirection) {
+        stats.nodes += Integer.bitCount(moves);
+        int leafScore = state.getScore() + 1;
+        int best = Integer.MIN_VALUE;
+        for (int remaining = moves; remaining != 0; remaining &= remaining - 1) {
+            int direction = Integer.numberOfTrailingZeros(remaining);
+            int score = leafScore + 2 * state.degree(state.target(direction));
+            if (table.isReverse(previousDirection, direction)) {
+                score -= REVERSE_PENALTY;
+            }
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+
+    // True if search(depth) at the current position is known to be at most best
+    private boolean cannotExceed(int depth, int best) {
+        if (best == Integer.MIN_VALUE || depth < BOUND_MIN_DEPTH || upperBound(depth) > best) {
+            return false;
+        }
+        prunedCount++;
+        return true;
+    }
+
+    /**
+     * Upper bound on search(depth) at the current position. Along any line the score grows
+     * by one per move and every node adds its mobility, so the value is at most the score
+     * plus the line length plus the mobilities along it (doubled at the leaf). The line
+     * cannot be longer than the reachable region, and with reversible moves it passes at
+     * most two dead ends (cells with one free neighbor), which can only start or end it.
+     * A cell on the line has at most directions - 1 free neighbors, since the one it was
+     * entered from is visited, and never more than the region cells still unvisited.
+     * Penalties only lower values, so ignoring them keeps the bound admissible.
+     */
+    private int upperBound(int depth) {
+        int moves = state.legalMoves();
+        int score = state.getScore();
+        if (moves == 0) {
+            return score;
+        }
+        int reachable = state.reachableCells();
+        int longest = reachable;
+        int maxMobility = table.directions;
+        if (table.symmetric) {
+            longest -= Math.max(0, state.deadEndsInRegion() - 2);
+            maxMobility--;
+        }
+        int length = Math.min(depth, longest);
+        int bound = score + length + Integer.bitCount(moves);
+        for (int step = 1; step < length; step++) {
+            bound += Math.min(maxMobility, reachable - step);
+        }
+        return bound + 2 * Math.min(maxMobility, reachable - length);
+    }
+
+    private int evaluate(int moves) {
+        return state.getScore() + 2 * Integer.bitCount(moves);
+    }
+
+    private boolean expired() {
+        return clock != null && clock.tick();
+    }
+}
@@ -0,0 +1,128 @@
+package players;
+
+import java.util.Arrays;
+
+/**
+ * Move ordering for the searches, without allocation: every depth of the search has
+ * its own preallocated buffer of moves and scores, which the caller fills and sorts in
+ * place. It also keeps a history table, a score per (cell, direction) move that grows
+ * each time the move turns out best in some node, weighted by the depth searched below
+ * it. Moves that were good elsewhere in the tree are likely good again, so trying them
+ * first gives a search something to compare the other moves against early. For the
+ * same reason each depth has a killer slot: the last direction that cut off a search at
+ * that depth, tried first in the other nodes searched at that depth.
+ */
+final class MoveOrdering {
+    private final MoveTable table;
+    private final int[] history;
+    private int[][] moves = new int[0][];
+    private double[][] scores = new double[0][];
+    private int[] killers = new int[0];  // -1 when empty
+
+    MoveOrdering(MoveTable table) {
+        this.table = table;
+        this.history = new int[table.cells * table.directions];
+    }
+
+    // Makes buffers available for every depth up to maxDepth
+    void ensureDepth(int maxDepth) {
+        if (maxDepth < moves.length) {
+            return;
+        }
+        int[][] grownMoves = new int[maxDepth + 1][];
+        double[][] grownScores = new double[maxDepth + 1][];
+        System.arraycopy(moves, 0, grownMoves, 0, moves.length);
+        System.arraycopy(scores, 0, grownScores, 0, scores.length);
+        for (int depth = moves.length; depth <= maxDepth; depth++) {
+            grownMoves[depth] = new int[table.directions];
+            grownScores[depth] = new double[table.directions];
+        }
+        moves = grownMoves;
+        scores = grownScores;
+        killers = new int[maxDepth + 1];
+        clearKillers();
+    }
+
+    // Directions to order at one depth; fill in the first count entries
+    int[] moves(int depth) {
+        return moves[depth];
+    }
+
+    double[] scores(int depth) {
+        return scores[depth];
+    }
+
+    // Copies the directions of a move mask into the buffer of a depth and returns how many there are
+    int load(int depth, int moveMask) {
+        int[] buffer = moves[depth];
+        int count = 0;
+        for (; moveMask != 0; moveMask &= moveMask - 1) {
+            buffer[count++] = Integer.numberOfTrailingZeros(moveMask);
+        }
+        return count;
+    }
+
+    /**
+     * Sorts the first count moves of a depth by descending score. Insertion sort: there
+     * are at most a handful of moves, and it is stable, so equal scores keep the order
+     * in which the moves were loaded.
+     */
+    void sort(int depth, int count) {
+        int[] buffer = moves[depth];
+        double[] keys = scores[depth];
+        for (int i = 1; i < count; i++) {
+            int move = buffer[i];
+            double key = keys[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j] < key) {
+                buffer[j + 1] = buffer[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            buffer[j + 1] = move;
+            keys[j + 1] = key;
+        }
+    }
+
+    // Records the direction that cut off the search of a node depth plies deep
+    void setKiller(int depth, int direction) {
+        killers[depth] = direction;
+    }
+
+    // Moves the killer of a depth, if it is among the first count moves, to the front; the others keep their order
+    void killerFirst(int depth, int count) {
+        int killer = killers[depth];
+        int[] buffer = moves[depth];
+        double[] keys = scores[depth];
+        for (int i = 1; i < count; i++) {
+            if (buffer[i] == killer) {
+                double key = keys[i];
+                System.arraycopy(buffer, 0, buffer, 1, i);
+                System.arraycopy(keys, 0, keys, 1, i);
+                buffer[0] = killer;
+                keys[0] = key;
+                return;
+            }
+        }
+    }
+
+    void clearKillers() {
+        Arrays.fill(killers, -1);
+    }
+
+    int history(int cell, int direction) {
+        return history[table.encode(cell, direction)];
+    }
+
+    // Records that a move was the best one in a node searched depth plies deep
+    void rewardBest(int cell, int direction, int depth) {
+        history[table.encode(cell, direction)] += depth * depth;
+    }
+
+    // Halves every history score, so that the positions of the current move count most
+    void age() {
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package players;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event with the SearchStats of one nextMove() call. Emitted by
+ * SearchStats.end(); when no recording enables it, creating it costs next to nothing.
+ */
+@Name("players.MoveSearch")
+@Label("Move Search")
+@Category("Players")
+@Description("Search statistics of one nextMove() call")
+@StackTrace(false)
+final class MoveSearchEvent extends Event {
+    @Label("Player")
+    String player;
+
+    @Label("Move")
+    int move;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Cache Probes")
+    long cacheProbes;
+
+    @Label("Cache Hits")
+    long cacheHits;
+
+    @Label("Rollouts")
+    long rollouts;
+
+    @Label("Stop Reason")
+    String stopReason;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+
+    @Label("Budget")
+    @Timespan(Timespan.NANOSECONDS)
+    long budget;
+}
@@ -0,0 +1,197 @@
+package players;
+import game.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * The move directions of the game, numbered 0..directions-1 so that searches can
+ * work with small ints instead of Move objects. The directions are discovered from
+ * the Board itself, so the table follows whatever move rules game.Board implements.
+ * A move is the pair (cell, direction), encoded as the int cell * directions + direction;
+ * per-cell tables give its destination, so searches never compute or bounds-check
+ * coordinates and never allocate Move lists.
+ */
+public final class MoveTable {
+    // Positions explored while discovering directions; all of them show up within a few plies
+    private static final int DISCOVERY_LIMIT = 256;
+
+    final int size;
+    final int cells;
+    final int directions;
+    final int[] dRow;
+    final int[] dCol;
+    final int[] reverse;  // Index of the opposite direction, or -1
+    final int[] targets;  // Destination cell of each encoded move, or -1 if it leaves the board
+    final int[] onBoard;  // Per cell: bit d is set when direction d stays on the board
+    final int[] sources;  // Cell from which direction d lands on each cell (same encoding as targets), or -1
+    final int[] inbound;  // Per cell: bit d is set when some cell lands on it with direction d
+    final long[][] sourceMask;  // Per direction: onBoard as a cell bitset, used to shift whole sets
+    final boolean symmetric;  // Every move can be reversed, so "neighbor of" is a symmetric relation
+    // Board symmetries (ZobristKeys numbering) that map the set of moves onto itself, identity first.
+    // Only under these are a position and its image equally good.
+    final int[] symmetries;
+    final int[][] symmetricDirection;  // [t][d]: direction d as seen through symmetry t, or -1
+    final int[] inverseSymmetry;
+
+    private MoveTable(int size, List<int[]> deltas) {
+        if (deltas.size() > 32) {
+            throw new IllegalStateException("Too many move directions for an int mask: " + deltas.size());
+        }
+        this.size = size;
+        this.cells = size * size;
+        this.directions = deltas.size();
+        this.dRow = new int[directions];
+        this.dCol = new int[directions];
+        for (int d = 0; d < directions; d++) {
+            dRow[d] = deltas.get(d)[0];
+            dCol[d] = deltas.get(d)[1];
+        }
+        this.reverse = new int[directions];
+        for (int d = 0; d < directions; d++) {
+            reverse[d] = direction(-dRow[d], -dCol[d]);
+        }
+
+        boolean allReversible = true;
+        for (int d = 0; d < directions; d++) {
+            allReversible &= reverse[d] >= 0;
+        }
+        this.symmetric = allReversible;
+
+        this.symmetricDirection = new int[ZobristKeys.SYMMETRIES][directions];
+        this.inverseSymmetry = new int[ZobristKeys.SYMMETRIES];
+        int[] found = new int[ZobristKeys.SYMMETRIES];
+        int count = 0;
+        for (int t = 0; t < ZobristKeys.SYMMETRIES; t++) {
+            boolean preservesMoves = true;
+            for (int d = 0; d < directions; d++) {
+                int[] image = transformDelta(t, dRow[d], dCol[d]);
+                symmetricDirection[t][d] = direction(image[0], image[1]);
+                preservesMoves &= symmetricDirection[t][d] >= 0;
+            }
+            if (preservesMoves) {
+                found[count++] = t;
+            }
+            // (1, 2) has a different image under each symmetry, so it identifies the inverse
+            int[] image = transformDelta(t, 1, 2);
+            for (int s = 0; s < ZobristKeys.SYMMETRIES; s++) {
+                int[] back = transformDelta(s, image[0], image[1]);
+                if (back[0] == 1 && back[1] == 2) {
+                    inverseSymmetry[t] = s;
+                }
+            }
+        }
+        this.symmetries = Arrays.copyOf(found, count);
+
+        this.targets = new int[cells * directions];
+        this.onBoard = new int[cells];
+        this.sources = new int[cells * directions];
+        this.inbound = new int[cells];
+        Arrays.fill(sources, -1);
+        this.sourceMask = new long[directions][(cells + 63) >>> 6];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int cell = r * size + c;
+                for (int d = 0; d < directions; d++) {
+                    int nr = r + dRow[d];
+                    int nc = c + dCol[d];
+                    if (nr >= 0 && nr < size && nc >= 0 && nc < size) {
+                        targets[encode(cell, d)] = nr * size + nc;
+                        onBoard[cell] |= 1 << d;
+                        sources[encode(nr * size + nc, d)] = cell;
+                        inbound[nr * size + nc] |= 1 << d;
+                        sourceMask[d][cell >>> 6] |= 1L << cell;
+                    } else {
+                        targets[encode(cell, d)] = -1;
+                    }
+                }
+            }
+        }
+    }
+
+    // A move's (dRow, dCol) as seen through symmetry t; the same transform as ZobristKeys.transform without the offsets
+    private static int[] transformDelta(int t, int dRow, int dCol) {
+        if ((t & 1) != 0) {
+            int swap = dRow;
+            dRow = dCol;
+            dCol = swap;
+        }
+        if ((t & 2) != 0) {
+            dRow = -dRow;
+        }
+        if ((t & 4) != 0) {
+            dCol = -dCol;
+        }
+        return new int[] {dRow, dCol};
+    }
+
+    public static MoveTable forBoard(Board board) {
+        TreeSet<Long> found = new TreeSet<>();
+        ArrayDeque<Board> queue = new ArrayDeque<>();
+        queue.add(board);
+        int explored = 0;
+        while (!queue.isEmpty() && explored < DISCOVERY_LIMIT) {
+            Board current = queue.poll();
+            explored++;
+            for (Move move : current.getPossibleMoves()) {
+                found.add(((long) move.getDRow() << 32) | (move.getDCol() & 0xFFFFFFFFL));
+                Board next = new Board(current);
+                if (next.applyMove(move)) {
+                    queue.add(next);
+                }
+            }
+        }
+
+        List<int[]> deltas = new ArrayList<>();
+        for (long key : found) {
+            deltas.add(new int[] {(int) (key >> 32), (int) key});
+        }
+        return new MoveTable(board.getSize(), deltas);
+    }
+
+    public int getDirections() {
+        return directions;
+    }
+
+    public int direction(int dRow, int dCol) {
+        for (int d = 0; d < directions; d++) {
+            if (this.dRow[d] == dRow && this.dCol[d] == dCol) return d;
+        }
+        return -1;
+    }
+
+    public int direction(Move move) {
+        return direction(move.getDRow(), move.getDCol());
+    }
+
+    // Finds the game's Move object for a direction among the board's legal moves
+    public Move toMove(Board board, int direction) {
+        for (Move move : board.getPossibleMoves()) {
+            if (move.getDRow() == dRow[direction] && move.getDCol() == dCol[direction]) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    public boolean isReverse(int d1, int d2) {
+        return reverse[d1] == d2;
+    }
+
+    public int encode(int cell, int direction) {
+        return cell * directions + direction;
+    }
+
+    // Destination cell of a move from cell, or -1 if it leaves the board
+    public int target(int cell, int direction) {
+        return targets[cell * directions + direction];
+    }
+
+    // Directions that stay on the board from cell, as a bit mask
+    public int onBoardMoves(int cell) {
+        return onBoard[cell];
+    }
+}
@@ -0,0 +1,88 @@
+package players;
+
+/**
+ * Connectivity of the unvisited cells, kept up to date move by move. For every cell it
+ * stores how many of its 8 surrounding cells are still unvisited, and it keeps the sum
+ * of those counts over all unvisited cells. Visiting a cell x removes its own count and
+ * one from each unvisited neighbor, so the sum drops by 2 * free[x]; unvisiting adds it
+ * back. Both are O(8) instead of a scan of the whole board.
+ */
+final class NeighborCounts {
+    private final int size;
+    private final byte[] free;
+    private int total;
+
+    NeighborCounts(int size) {
+        this.size = size;
+        this.free = new byte[size * size];
+    }
+
+    // Recomputes every count from a visited bitset (bit row * size + col)
+    void reset(long[] visited) {
+        total = 0;
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int count = 0;
+                for (int dr = -1; dr <= 1; dr++) {
+                    for (int dc = -1; dc <= 1; dc++) {
+                        int nr = r + dr;
+                        int nc = c + dc;
+                        if ((dr != 0 || dc != 0) && nr >= 0 && nr < size && nc >= 0 && nc < size
+                                && !isSet(visited, nr * size + nc)) {
+                            count++;
+                        }
+                    }
+                }
+                free[r * size + c] = (byte) count;
+                if (!isSet(visited, r * size + c)) {
+                    total += count;
+                }
+            }
+        }
+    }
+
+    void copyFrom(NeighborCounts other) {
+        System.arraycopy(other.free, 0, free, 0, free.length);
+        total = other.total;
+    }
+
+    void visit(int cell) {
+        total -= 2 * free[cell];
+        adjustNeighbors(cell, -1);
+    }
+
+    void unvisit(int cell) {
+        adjustNeighbors(cell, 1);
+        total += 2 * free[cell];
+    }
+
+    private void adjustNeighbors(int cell, int delta) {
+        int r = cell / size;
+        int c = cell % size;
+        int rowStart = Math.max(r - 1, 0);
+        int rowEnd = Math.min(r + 1, size - 1);
+        int colStart = Math.max(c - 1, 0);
+        int colEnd = Math.min(c + 1, size - 1);
+        for (int nr = rowStart; nr <= rowEnd; nr++) {
+            for (int nc = colStart; nc <= colEnd; nc++) {
+                if (nr != r || nc != c) {
+                    free[nr * size + nc] += delta;
+                }
+            }
+        }
+    }
+
+    // Number of unvisited cells around a cell
+    int freeNeighbors(int cell) {
+        return free[cell];
+    }
+
+    // Sum of freeNeighbors over all unvisited cells
+    int total() {
+        return total;
+    }
+
+    private static boolean isSet(long[] bits, int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+}
@@ -0,0 +1,58 @@
+package players;
+
+/**
+ * Warnsdorff degrees of every cell, kept up to date move by move: how many unvisited
+ * cells are one move away from it. Visiting a cell x lowers the degree of each cell that
+ * has a move onto x, and unvisiting raises them again, so both cost at most one update
+ * per direction instead of recomputing degrees from the move tables. A player's mobility
+ * is then the degree of its cell, and the mobility after a move the degree of the move's
+ * destination, both single array reads.
+ */
+final class OnwardDegrees {
+    private final MoveTable table;
+    private final byte[] degree;
+
+    OnwardDegrees(MoveTable table) {
+        this.table = table;
+        this.degree = new byte[table.cells];
+    }
+
+    // Recomputes every degree from a visited bitset (bit row * size + col)
+    void reset(long[] visited) {
+        for (int cell = 0; cell < table.cells; cell++) {
+            int count = 0;
+            int base = cell * table.directions;
+            for (int candidates = table.onBoard[cell]; candidates != 0; candidates &= candidates - 1) {
+                int target = table.targets[base + Integer.numberOfTrailingZeros(candidates)];
+                if ((visited[target >>> 6] & (1L << target)) == 0) {
+                    count++;
+                }
+            }
+            degree[cell] = (byte) count;
+        }
+    }
+
+    void copyFrom(OnwardDegrees other) {
+        System.arraycopy(other.degree, 0, degree, 0, degree.length);
+    }
+
+    void visit(int cell) {
+        adjustSources(cell, -1);
+    }
+
+    void unvisit(int cell) {
+        adjustSources(cell, 1);
+    }
+
+    private void adjustSources(int cell, int delta) {
+        int base = cell * table.directions;
+        for (int arriving = table.inbound[cell]; arriving != 0; arriving &= arriving - 1) {
+            degree[table.sources[base + Integer.numberOfTrailingZeros(arriving)]] += delta;
+        }
+    }
+
+    // Number of unvisited cells one move away from cell
+    int degree(int cell) {
+        return degree[cell];
+    }
+}
@@ -1,29 +1,86 @@
 package players;
 import game.*;
 
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
 
-public class Player10000 extends Player {
+public class Player10000 extends Player implements SearchTelemetry {
     // Constants for search parameters and evaluation weights
-    private static final int MAX_DEPTH = 3; // Good balance of depth vs performance
-    private static final double MOBILITY_WEIGHT = 4.0; // High priority on having future move options
-    private static final double COVERAGE_WEIGHT = 2.5; // Board coverage is important
-    private static final double SPREAD_WEIGHT = 2.0; // Encourage exploring all quadrants
-    private static final double CENTER_WEIGHT = 1.0; // Modest weight for central position
-    private static final double EDGE_PENALTY = 0.8; // Penalty for staying near edges
+    private static final int MAX_DEPTH = 5; // Evaluation is O(1), so the look-ahead can go deeper
+    private static final int LOOKAHEAD_MOVES = 4; // Moves followed per position below the root
+
+    // Hand-picked evaluation weights; a file written by WeightTuner replaces them (see EvaluationWeights)
+    static final EvaluationWeights DEFAULT_WEIGHTS = new EvaluationWeights(
+            new String[] {"mobility", "coverage", "spread", "center", "edgePenalty"},
+            new double[] {4.0, 2.5, 2.0, 1.0, 0.8});
+    private final double mobilityWeight; // High priority on having future move options
+    private final double coverageWeight; // Board coverage is important
+    private final double spreadWeight; // Encourage exploring all quadrants
+    private final double centerWeight; // Modest weight for central position
+    private final double edgePenalty; // Penalty for staying near edges
 
     // Board dimensions
     private final int boardSize;
     private final int centerRow;
     private final int centerCol;
 
+    // The search board (make/unmake) and the evaluation counters kept in step with it
+    private final MoveTable moveTable;
+    private final BitBoard state;
+    private final int[] quadrantCounts = new int[4];
+    private double coveragePerCell;
+
+    // Per-cell evaluation terms, computed once
+    private final int[] cellQuadrant;
+    private final double[] centerPenalty;
+    private final double[] edgeProximity;
+
+    // Scratch space for move selection, one row per search depth
+    private final int[][] selectedMoves;
+    private final double[][] selectedScores;
+
+    // Positions evaluated for the last move
+    private final SearchStats moveStats = new SearchStats("Player10000");
+    private final SearchClock clock = new SearchClock(1024); // Polls the time every 1024 positions
+
     public Player10000(Board board) {
+        this(board, EvaluationWeights.load("Player10000", DEFAULT_WEIGHTS));
+    }
+
+    // Plays with the given weights instead of the loaded ones (WeightTuner)
+    Player10000(Board board, EvaluationWeights weights) {
         super(board);
+        this.mobilityWeight = weights.get(0);
+        this.coverageWeight = weights.get(1);
+        this.spreadWeight = weights.get(2);
+        this.centerWeight = weights.get(3);
+        this.edgePenalty = weights.get(4);
         this.boardSize = board.getSize();
         this.centerRow = boardSize / 2;
         this.centerCol = boardSize / 2;
+        this.moveTable = MoveTable.forBoard(board);
+        this.state = new BitBoard(moveTable);
+
+        int cells = boardSize * boardSize;
+        this.cellQuadrant = new int[cells];
+        this.centerPenalty = new double[cells];
+        this.edgeProximity = new double[cells];
+        for (int r = 0; r < boardSize; r++) {
+            for (int c = 0; c < boardSize; c++) {
+                int cell = r * boardSize + c;
+                // Determine quadrant (0: top-left, 1: top-right, 2: bottom-left, 3: bottom-right)
+                cellQuadrant[cell] = (r < centerRow ? 0 : 2) + (c < centerCol ? 0 : 1);
+                // Distance from center (Manhattan distance)
+                int distanceFromCenter = Math.abs(r - centerRow) + Math.abs(c - centerCol);
+                centerPenalty[cell] = (distanceFromCenter * centerWeight) / boardSize;
+                edgeProximity[cell] = calculateEdgeProximity(r, c);
+            }
+        }
+
+        this.selectedMoves = new int[MAX_DEPTH][moveTable.directions];
+        this.selectedScores = new double[MAX_DEPTH][moveTable.directions];
+        // Look-aheads run outside nextMove (SearchBenchmark) have no deadline
+        clock.startUnlimited();
     }
 
     @Override
@@ -39,25 +96,30 @@ public class Player10000 extends Player {
         double bestScore = Double.NEGATIVE_INFINITY;
 
         // Start timing to avoid timeout issues
-        long startTime = System.currentTimeMillis();
         long timeLimit = 900; // ms (safety margin below 1000ms timeout)
 
+        moveStats.begin(timeLimit * 1_000_000L);
+        moveStats.depth = MAX_DEPTH;
+        clock.start(timeLimit * 1_000_000L, boardSize * boardSize - board.getScore());
+        loadState();
+
         // Evaluate each possible move
         for (Move move : possibleMoves) {
-            // Check time to avoid timeout
-            if (System.currentTimeMillis() - startTime > timeLimit) {
-                break;
-            }
-
-            // Simulate this move
-            Board simulatedBoard = new Board(board);
-            if (!simulatedBoard.applyMove(move)) continue;
+            // Simulate this move on the search board
+            make(moveTable.direction(move));
 
             // Calculate immediate score for this move
-            double immediateScore = evaluatePosition(simulatedBoard);
+            double immediateScore = evaluatePosition();
 
             // Look ahead to find the best sequence of moves
-            double futureScore = lookAhead(simulatedBoard, 1, MAX_DEPTH);
+            double futureScore = lookAhead(1, MAX_DEPTH);
+            unmake();
+
+            // A look-ahead cut off by the deadline undervalues its move, so it is not used
+            if (clock.isExpired()) {
+                moveStats.stopReason = SearchStats.HARD_LIMIT;
+                break;
+            }
 
             // Combine immediate and future scores
             double totalScore = immediateScore + futureScore;
@@ -68,63 +130,86 @@ public class Player10000 extends Player {
             }
         }
 
+        moveStats.end();
+
         // If we couldn't evaluate all moves due to time constraints but found at least one good move, use it
         // Otherwise, default to the first valid move
         return bestMove != null ? bestMove : possibleMoves.get(0);
     }
 
-    // Evaluate how good a board position is
-    private double evaluatePosition(Board board) {
-        int playerRow = board.getPlayerRow();
-        int playerCol = board.getPlayerCol();
-        int availableMoves = board.getPossibleMoves().size();
-        double coverage = board.getCoveragePercentage();
+    @Override
+    public SearchStats lastMoveStats() {
+        return moveStats;
+    }
 
-        // Calculate distance from center (Manhattan distance)
-        int distanceFromCenter = Math.abs(playerRow - centerRow) + Math.abs(playerCol - centerCol);
+    // Load the game board into the search board and recount the evaluation counters
+    void loadState() {
+        state.load(board);
+        // Coverage grows linearly with the visited cells; take the scale from the game board
+        coveragePerCell = board.getCoveragePercentage() / state.getScore();
+        Arrays.fill(quadrantCounts, 0);
+        for (int r = 0; r < boardSize; r++) {
+            for (int c = 0; c < boardSize; c++) {
+                if (state.isVisited(r, c)) {
+                    quadrantCounts[cellQuadrant[r * boardSize + c]]++;
+                }
+            }
+        }
+    }
 
-        // Calculate quadrant distribution to encourage spreading
-        int[] quadrantCounts = calculateQuadrantDistribution(board);
-        double spreadScore = calculateSpreadScore(quadrantCounts);
+    // Apply a move on the search board and update the counters in O(1)
+    private void make(int direction) {
+        state.make(direction);
+        quadrantCounts[cellQuadrant[state.getPlayerRow() * boardSize + state.getPlayerCol()]]++;
+    }
+
+    private void unmake() {
+        quadrantCounts[cellQuadrant[state.getPlayerRow() * boardSize + state.getPlayerCol()]]--;
+        state.unmake();
+    }
+
+    // Evaluate how good the position on the search board is
+    double evaluatePosition() {
+        moveStats.nodes++;
+        clock.tick();
+        int cell = state.getPlayerRow() * boardSize + state.getPlayerCol();
+        int availableMoves = state.mobility();
+        double coverage = state.getScore() * coveragePerCell;
 
-        // Calculate edge proximity (0 = center, 1 = edge)
-        double edgeProximity = calculateEdgeProximity(playerRow, playerCol);
+        // Quadrant distribution to encourage spreading
+        double spreadScore = calculateSpreadScore(quadrantCounts);
 
         // Calculate final score with weights
         double score = 0.0;
-        score += availableMoves * MOBILITY_WEIGHT; // Future mobility is critical
-        score += coverage * COVERAGE_WEIGHT; // Higher coverage is better
-        score += spreadScore * SPREAD_WEIGHT; // Better spread across quadrants
-        score -= (distanceFromCenter * CENTER_WEIGHT) / boardSize; // Prefer staying somewhat central
-        score -= edgeProximity * EDGE_PENALTY; // Penalty for being close to edges
+        score += availableMoves * mobilityWeight; // Future mobility is critical
+        score += coverage * coverageWeight; // Higher coverage is better
+        score += spreadScore * spreadWeight; // Better spread across quadrants
+        score -= centerPenalty[cell]; // Prefer staying somewhat central
+        score -= edgeProximity[cell] * edgePenalty; // Penalty for being close to edges (0 = center, 1 = edge)
 
         return score;
     }
 
     // Look ahead multiple moves and return the best possible score
-    private double lookAhead(Board board, int currentDepth, int maxDepth) {
-        if (currentDepth >= maxDepth || board.isGameOver()) {
-            return 0.0;
-        }
-
-        List<Move> possibleMoves = board.getPossibleMoves();
-        if (possibleMoves.isEmpty()) {
+    double lookAhead(int currentDepth, int maxDepth) {
+        int possibleMoves = state.legalMoves();
+        if (currentDepth >= maxDepth || possibleMoves == 0) {
             return 0.0;
         }
 
         double bestScore = Double.NEGATIVE_INFINITY;
 
-        // Reduce branching factor at deeper levels for better performance
-        int movesToEvaluate = Math.min(possibleMoves.size(), maxDepth == 3 ? 4 : 3);
-        List<Move> selectedMoves = selectBestMovesForLookahead(board, possibleMoves, movesToEvaluate);
+        // Only the most promising moves are followed
+        int movesToEvaluate = selectBestMovesForLookahead(possibleMoves, currentDepth);
+        int[] selected = selectedMoves[currentDepth];
 
-        for (Move move : selectedMoves) {
-            Board simulatedBoard = new Board(board);
-            if (!simulatedBoard.applyMove(move)) continue;
+        for (int i = 0; i < movesToEvaluate && !clock.isExpired(); i++) {
+            make(selected[i]);
 
             // Evaluate this position and continue looking ahead
-            double immediateScore = evaluatePosition(simulatedBoard);
-            double futureScore = lookAhead(simulatedBoard, currentDepth + 1, maxDepth);
+            double immediateScore = evaluatePosition();
+            double futureScore = lookAhead(currentDepth + 1, maxDepth);
+            unmake();
 
             // Apply discount factor to future scores (prioritize immediate gains)
             double totalScore = immediateScore + (futureScore / (currentDepth + 1.5));
@@ -135,41 +220,46 @@ public class Player10000 extends Player {
         return bestScore;
     }
 
-    // Select a subset of promising moves for deeper lookahead
-    private List<Move> selectBestMovesForLookahead(Board board, List<Move> moves, int count) {
-        // If we have few moves, just return them all
-        if (moves.size() <= count) {
-            return new ArrayList<>(moves);
-        }
-
-        // Create a list of moves with their preliminary scores
-        List<ScoredMove> scoredMoves = new ArrayList<>();
+    // Select the most promising moves into selectedMoves[depth], best first, and return how many
+    private int selectBestMovesForLookahead(int moves, int depth) {
+        int[] selected = selectedMoves[depth];
+        double[] scores = selectedScores[depth];
+        int count = 0;
 
-        for (Move move : moves) {
-            Board simulatedBoard = new Board(board);
-            if (!simulatedBoard.applyMove(move)) continue;
-
-            // Quick evaluation - mobility focused
-            double score = quickEvaluate(simulatedBoard);
-            scoredMoves.add(new ScoredMove(move, score));
+        // If we have few moves, just use them all
+        if (Integer.bitCount(moves) <= LOOKAHEAD_MOVES) {
+            for (; moves != 0; moves &= moves - 1) {
+                selected[count++] = Integer.numberOfTrailingZeros(moves);
+            }
+            return count;
         }
 
-        // Sort by score (descending) and select the top moves
-        scoredMoves.sort(Comparator.comparingDouble(ScoredMove::getScore).reversed());
-
-        List<Move> selectedMoves = new ArrayList<>();
-        for (int i = 0; i < count && i < scoredMoves.size(); i++) {
-            selectedMoves.add(scoredMoves.get(i).getMove());
+        // Quick evaluation - mobility focused
+        for (; moves != 0; moves &= moves - 1) {
+            int direction = Integer.numberOfTrailingZeros(moves);
+            make(direction);
+            double score = quickEvaluate();
+            unmake();
+
+            // Insertion sort by score (descending); equal scores keep their order
+            int i = count++;
+            while (i > 0 && scores[i - 1] < score) {
+                selected[i] = selected[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            selected[i] = direction;
+            scores[i] = score;
         }
 
-        return selectedMoves;
+        return LOOKAHEAD_MOVES;
     }
 
     // Simplified evaluation for move selection
-    private double quickEvaluate(Board board) {
-        int availableMoves = board.getPossibleMoves().size();
-        int playerRow = board.getPlayerRow();
-        int playerCol = board.getPlayerCol();
+    private double quickEvaluate() {
+        int availableMoves = state.mobility();
+        int playerRow = state.getPlayerRow();
+        int playerCol = state.getPlayerCol();
 
         // Calculate distance from center (0-1 scale, 0 = edge, 1 = center)
         double centerProximity = 1.0 - (double)(Math.abs(playerRow - centerRow) +
@@ -179,23 +269,6 @@ public class Player10000 extends Player {
         return availableMoves * 2.0 + centerProximity * boardSize * 0.5;
     }
 
-    // Calculate how pieces are distributed across the four quadrants of the board
-    private int[] calculateQuadrantDistribution(Board board) {
-        int[] counts = new int[4];
-
-        for (int r = 0; r < boardSize; r++) {
-            for (int c = 0; c < boardSize; c++) {
-                if (board.isVisited(r, c)) {
-                    // Determine quadrant (0: top-left, 1: top-right, 2: bottom-left, 3: bottom-right)
-                    int quadrant = (r < centerRow ? 0 : 2) + (c < centerCol ? 0 : 1);
-                    counts[quadrant]++;
-                }
-            }
-        }
-
-        return counts;
-    }
-
     // Calculate a score based on how evenly the board is covered
     private double calculateSpreadScore(int[] quadrantCounts) {
         double total = quadrantCounts[0] + quadrantCounts[1] + quadrantCounts[2] + quadrantCounts[3];
@@ -227,23 +300,4 @@ public class Player10000 extends Player {
         // Normalize to 0-1 range (1 = at edge, 0 = at center)
         return 1.0 - (2.0 * minDist / boardSize);
     }
-
-    // Helper class to associate a move with its score
-    private static class ScoredMove {
-        private final Move move;
-        private final double score;
-
-        public ScoredMove(Move move, double score) {
-            this.move = move;
-            this.score = score;
-        }
-
-        public Move getMove() {
-            return move;
-        }
-
-        public double getScore() {
-            return score;
-        }
-    }
 }
@@ -3,77 +3,43 @@ package players;
 import game.*;
 import java.util.List;
 
-public class Player1111 extends Player {
-    private Move lastMove = null;
+public class Player1111 extends Player implements SearchTelemetry {
     private final int SEARCH_DEPTH = 7;
     private final int TIME_LIMIT_MS = 950; // 950ms süre sınırı
+    private final MoveTable moveTable;
+    private final MinimaxSearch search;
+    // Süre her 1024 düğümde bir kontrol edilir
+    private final SearchClock clock = new SearchClock(1024);
+    private final SearchStats moveStats = new SearchStats("Player1111");
 
     public Player1111(Board board) {
         super(board);
+        this.moveTable = MoveTable.forBoard(board);
+        this.search = new MinimaxSearch(moveTable);
     }
 
     @Override
     public Move nextMove() {
-        long startTime = System.currentTimeMillis();
         List<Move> possibleMoves = board.getPossibleMoves();
         if (possibleMoves.isEmpty()) return null;
 
-        Move bestMove = null;
-        int bestValue = Integer.MIN_VALUE;
+        int movesLeft = board.getSize() * board.getSize() - board.getScore();
+        moveStats.begin(TIME_LIMIT_MS * 1_000_000L);
+        clock.start(TIME_LIMIT_MS * 1_000_000L, movesLeft);
+        search.setRoot(board);
 
-        for (Move move : possibleMoves) {
-            if (System.currentTimeMillis() - startTime >= TIME_LIMIT_MS) {
-                break; // Süre sınırını aşıyorsak en iyi bulduğumuz hamleyi dön
-            }
-            // Her hamle için board durumunun bir kopyasını oluşturup hamleyi uygula.
-            Board simulatedBoard = new Board(board);
-            if (!simulatedBoard.applyMove(move)) continue;
+        // Derinlik 1'den SEARCH_DEPTH'e kadar artırılır; süre dolarsa tamamlanan son derinliğin en iyi hamlesi döner.
+        int direction = search.iterativeDeepening(SEARCH_DEPTH, -1, clock);
+        Move bestMove = moveTable.toMove(board, direction);
+        moveStats.add(search.stats());
+        moveStats.stopReason = search.stats().stopReason;
+        moveStats.end();
 
-            int val = minimax(simulatedBoard, SEARCH_DEPTH, move, startTime);
-
-            int newRow = board.getPlayerRow() + move.getDRow();
-            int newCol = board.getPlayerCol() + move.getDCol();
-            int boardSize = board.getSize();
-            if (newRow < 2 || newRow > boardSize - 3 || newCol < 2 || newCol > boardSize - 3) {
-                val -= 5;
-            }
-
-            if (val > bestValue) {
-                bestValue = val;
-                bestMove = move;
-            }
-        }
-
-        lastMove = bestMove;
         return bestMove;
     }
 
-    private int minimax(Board boardState, int depth, Move previousMove, long startTime) {
-        if (depth == 0 || boardState.isGameOver() || System.currentTimeMillis() - startTime >= TIME_LIMIT_MS) {
-            return evaluateBoard(boardState);
-        }
-
-        int best = Integer.MIN_VALUE;
-        List<Move> moves = boardState.getPossibleMoves();
-        for (Move move : moves) {
-            Board newBoard = new Board(boardState);
-            if (!newBoard.applyMove(move)) continue;
-
-            int score = minimax(newBoard, depth - 1, move, startTime);
-            if (previousMove != null && isReverse(previousMove, move)) {
-                score -= 10;
-            }
-            best = Math.max(best, score);
-        }
-        best += boardState.getPossibleMoves().size();
-        return best;
-    }
-
-    private int evaluateBoard(Board boardState) {
-        return boardState.getScore() + 2 * boardState.getPossibleMoves().size();
-    }
-
-    private boolean isReverse(Move m1, Move m2) {
-        return m1.getDRow() == -m2.getDRow() && m1.getDCol() == -m2.getDCol();
+    @Override
+    public SearchStats lastMoveStats() {
+        return moveStats;
     }
 }
\ No newline at end of file
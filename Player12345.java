@@ -2,27 +2,44 @@ package players;
 
 import game.*;
 import java.util.List;
-import java.util.Random;
 
-public class Player12345 extends Player {
-    private static final int SIMULATION_COUNT = 5000; // Increased number of simulations
-    private final Random random;
+public class Player12345 extends Player implements SearchTelemetry {
+    private static final int MAX_SIMULATIONS = 20000; // Upper bound on playouts per move
+    private static final long TIME_BUDGET_MS = 800; // Playouts stop here, well inside the 1 second limit
+    private final MoveTable moveTable;
+    private final BitBoard root;
+    private final RolloutEngine rollouts; // Playouts run in parallel on all cores
+    private final SearchStats moveStats = new SearchStats("Player12345");
 
     public Player12345(Board board) {
         super(board);
-        this.random = new Random();
+        this.moveTable = MoveTable.forBoard(board);
+        this.root = new BitBoard(moveTable);
+        this.rollouts = new RolloutEngine(moveTable);
     }
 
     @Override
     public Move nextMove() {
         List<Move> possibleMoves = board.getPossibleMoves();
         if (possibleMoves.isEmpty()) return null;
+        moveStats.begin(TIME_BUDGET_MS * 1_000_000);
+        if (possibleMoves.size() == 1) {
+            moveStats.end();
+            return possibleMoves.get(0);
+        }
+
+        long deadline = System.nanoTime() + TIME_BUDGET_MS * 1_000_000;
+        root.load(board);
+        double[] averageScores = rollouts.averageScores(root, root.legalMoves(), deadline, MAX_SIMULATIONS);
+        moveStats.add(rollouts.stats());
+        moveStats.stopReason = rollouts.stats().stopReason;
+        moveStats.end();
 
         Move bestMove = null;
         double bestScore = -1;
 
         for (Move move : possibleMoves) {
-            double averageScore = simulateMove(move);
+            double averageScore = averageScores[moveTable.direction(move)];
             if (averageScore > bestScore) {
                 bestScore = averageScore;
                 bestMove = move;
@@ -31,24 +48,8 @@ public class Player12345 extends Player {
         return bestMove;
     }
 
-    private double simulateMove(Move move) {
-        double totalScore = 0;
-        for (int i = 0; i < SIMULATION_COUNT; i++) {
-            Board simulationBoard = new Board(board);
-            simulationBoard.applyMove(move);
-            totalScore += simulateGame(simulationBoard);
-        }
-        return totalScore / SIMULATION_COUNT;
-    }
-
-    private double simulateGame(Board simulationBoard) {
-        while (!simulationBoard.isGameOver()) {
-            List<Move> possibleMoves = simulationBoard.getPossibleMoves();
-            if (possibleMoves.isEmpty()) break;
-
-            Move randomMove = possibleMoves.get(random.nextInt(possibleMoves.size()));
-            simulationBoard.applyMove(randomMove);
-        }
-        return simulationBoard.getScore();
+    @Override
+    public SearchStats lastMoveStats() {
+        return moveStats;
     }
 }
\ No newline at end of file
@@ -2,300 +2,323 @@ package players;
 import game.*;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Comparator;
-
-public class Player16073 extends Player {
-    // Depth for the look-ahead search
-    private final int MAX_DEPTH = 5;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+public class Player16073 extends Player implements SearchTelemetry, Pondering {
+    // Depth limit for the look-ahead search
+    private final int MAX_DEPTH;
+    // Timed games deepen until the 750ms budget runs out. With the incremental counters depth 5
+    // took only a few milliseconds, which left the budget and the helper threads unused.
+    private static final int TIMED_MAX_DEPTH = 12;
+    // Hand-picked weights of the PositionEvaluator.evaluate terms; a file written by WeightTuner replaces them
+    static final EvaluationWeights DEFAULT_WEIGHTS = new EvaluationWeights(
+            new String[] {"visited", "mobility", "futureMobility", "connectivity", "center"},
+            new double[] {2.0, 1.5, 0.8, 0.5, 0.3});
+    private final double visitedWeight;
+    private final double mobilityWeight;
+    private final double futureMobilityWeight;
+    private final double connectivityWeight;
+    private final double centerWeight;
+    // False when searching to a fixed depth for WeightTuner: no time limit, no helper threads, no pondering
+    private final boolean timed;
+    // Transposition table holds 2^18 positions
+    private static final int TABLE_SIZE_LOG2 = 18;
+    // Score the size of the region still reachable from the player in PositionEvaluator.evaluate (flood fill per leaf)
+    private static final boolean USE_REGION_SIZE = false;
     // Keep track of move history for pattern detection
     private List<Move> moveHistory;
-    // Cache for evaluated positions
-    private Map<String, Double> positionCache;
+    // Directions that detectCycle flags for the current move history, read by the searches
+    private final boolean[] cycleDirections;
+    // Move directions of the game
+    private final MoveTable moveTable;
+    // Cache for evaluated positions, keyed by the incremental Zobrist hash of the search board.
+    // Shared by all search threads without locks (see TranspositionTable).
+    private final TranspositionTable transpositionTable;
+    // 750ms per move to stay under 1 second
+    private static final long TIME_LIMIT_NANOS = 750_000_000L;
+    // Between moves the next position is searched in the background to fill the table, up to this long
+    private static final long PONDER_LIMIT_NANOS = 1_000_000_000L;
+    // Helper threads for the parallel search: one per extra core, at most this many; they come from SearchThreads
+    private static final int MAX_HELPERS = 7;
+
+    // The searcher of the calling thread, and one per helper thread
+    private final PositionEvaluator evaluator = new PositionEvaluator();
+    private final AlphaBetaSearch mainSearcher;
+    private final AlphaBetaSearch[] helperSearchers;
+    private final Ponderer ponderer = new Ponderer();
+    // Counters of all searchers for the last move
+    private final SearchStats moveStats = new SearchStats("Player16073");
 
     public Player16073(Board board) {
+        this(board, EvaluationWeights.load("Player16073", DEFAULT_WEIGHTS), 0);
+    }
+
+    /**
+     * With searchDepth > 0 every move is searched to exactly that depth on the calling
+     * thread, so games are reproducible and cheap enough to play by the thousand
+     * (WeightTuner). With 0 the player searches as in a real game.
+     */
+    Player16073(Board board, EvaluationWeights weights, int searchDepth) {
         super(board);
+        this.MAX_DEPTH = searchDepth > 0 ? searchDepth : TIMED_MAX_DEPTH;
+        this.timed = searchDepth == 0;
+        this.visitedWeight = weights.get(0);
+        this.mobilityWeight = weights.get(1);
+        this.futureMobilityWeight = weights.get(2);
+        this.connectivityWeight = weights.get(3);
+        this.centerWeight = weights.get(4);
         this.moveHistory = new ArrayList<>();
-        this.positionCache = new HashMap<>();
+        this.moveTable = MoveTable.forBoard(board);
+        this.cycleDirections = new boolean[moveTable.directions];
+        this.transpositionTable = new TranspositionTable(TABLE_SIZE_LOG2);
+        this.mainSearcher = newSearcher();
+
+        int helperCount = Math.max(0, Math.min(Runtime.getRuntime().availableProcessors() - 1, MAX_HELPERS));
+        if (!timed) {
+            helperCount = 0;
+        }
+        this.helperSearchers = new AlphaBetaSearch[helperCount];
+        for (int i = 0; i < helperCount; i++) {
+            helperSearchers[i] = newSearcher();
+        }
+    }
+
+    // Nodes are costly here, so the time is polled every 32 nodes
+    private AlphaBetaSearch newSearcher() {
+        return new AlphaBetaSearch(moveTable, transpositionTable, evaluator, MAX_DEPTH, 32);
     }
 
     @Override
     public Move nextMove() {
+        // Stop the background search first; the table entries it stored are reused below
+        ponderer.stop();
+
         List<Move> possibleMoves = board.getPossibleMoves();
         if (possibleMoves.isEmpty()) return null;
 
-        // Sort moves by initial evaluation to prioritize promising moves first
-        PriorityQueue<MoveEvaluation> rankedMoves = rankMoves(possibleMoves);
-
-        // Apply iterative deepening with a time limit
-        long startTime = System.currentTimeMillis();
-        long timeLimit = 750; // 750ms time limit to stay under 1 second
-
-        Move bestMove = rankedMoves.peek().move;
-        double bestScore = Double.NEGATIVE_INFINITY;
-
-        // Start with a shallow search, then gradually increase depth
-        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
-            MoveEvaluation currentBest = null;
-
-            // Reset the queue for each depth level
-            PriorityQueue<MoveEvaluation> depthRankedMoves = new PriorityQueue<>(rankedMoves);
-
-            while (!depthRankedMoves.isEmpty()) {
-                MoveEvaluation eval = depthRankedMoves.poll();
-                Move move = eval.move;
+        // Lazy SMP: every thread runs its own iterative deepening on the same root and they
+        // share the transposition table, so helpers fill in entries the main search reuses.
+        // Helpers start at alternating depths and rotate their root order to diverge.
+        moveStats.begin(timed ? TIME_LIMIT_NANOS : 0);
+        AlphaBetaSearch main = mainSearcher;
+        main.stats.reset();
+        main.state.load(board);
+        transpositionTable.nextGeneration();
+        int movesLeft = main.state.getSize() * main.state.getSize() - main.state.getScore();
+
+        // Only as many helpers as there are spare cores right now, possibly none
+        int helperCount = SearchThreads.reserveHelpers(helperSearchers.length);
+        int bestDirection;
+        try {
+            List<Future<?>> running = new ArrayList<>(helperCount);
+            for (int i = 0; i < helperCount; i++) {
+                AlphaBetaSearch helper = helperSearchers[i];
+                helper.state.copyFrom(main.state);
+                helper.stats.reset();
+                helper.clock.start(TIME_LIMIT_NANOS, movesLeft);
+                int helperIndex = i + 1;
+                running.add(SearchThreads.submit(() -> helper.iterativeDeepening(1 + (helperIndex & 1), helperIndex)));
+            }
 
-                // Check if we're running out of time
-                if (System.currentTimeMillis() - startTime > timeLimit) {
-                    // If we're out of time, use the best move from the previous completed depth
+            // Apply iterative deepening with a time limit
+            if (timed) {
+                main.clock.start(TIME_LIMIT_NANOS, movesLeft);
+            } else {
+                main.clock.startUnlimited();
+            }
+            main.iterativeDeepening(1, 0);
+            // Nothing stops an untimed search early; should it happen, the deepest result is played
+            assert timed || main.finishedDepth == MAX_DEPTH
+                    : "Fixed-depth search stopped at depth " + main.finishedDepth + " of " + MAX_DEPTH;
+
+            // The main search's move stands unless a helper searched every root move of a deeper
+            // iteration. A helper stopped early may only have re-searched its own previous best.
+            bestDirection = main.bestDirection;
+            int bestDepth = main.completedDepth;
+
+            // The helpers stop within one poll interval; nothing may touch the table after nextMove returns
+            for (int i = 0; i < helperCount; i++) {
+                helperSearchers[i].clock.requestStop();
+            }
+            for (int i = 0; i < running.size(); i++) {
+                try {
+                    running.get(i).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
                     break;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Helper search failed", e.getCause());
                 }
-
-                // Create a copy of the board and apply the move
-                Board simulatedBoard = new Board(board);
-                if (!simulatedBoard.applyMove(move)) continue;
-
-                // Evaluate the move using look-ahead
-                double score = lookAhead(simulatedBoard, depth - 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
-
-                if (currentBest == null || score > currentBest.score) {
-                    currentBest = new MoveEvaluation(move, score);
+                AlphaBetaSearch helper = helperSearchers[i];
+                if (helper.finishedDepth > bestDepth) {
+                    bestDirection = helper.bestDirection;
+                    bestDepth = helper.finishedDepth;
                 }
             }
+        } finally {
+            SearchThreads.releaseHelpers(helperCount);
+        }
 
-            if (currentBest != null && currentBest.score > bestScore) {
-                bestScore = currentBest.score;
-                bestMove = currentBest.move;
-            }
-
-            // If we're close to the time limit, stop increasing depth
-            if (System.currentTimeMillis() - startTime > timeLimit * 0.7) {
-                break;
-            }
+        moveStats.add(main.stats);
+        moveStats.stopReason = main.stats.stopReason;
+        for (int i = 0; i < helperCount; i++) {
+            moveStats.add(helperSearchers[i].stats);
         }
+        moveStats.end();
+
+        Move bestMove = moveTable.toMove(board, bestDirection);
 
         // Record the move for pattern detection in future turns
         moveHistory.add(bestMove);
         if (moveHistory.size() > 10) {
             moveHistory.remove(0);
         }
-
-        return bestMove;
-    }
-
-    // Alpha-beta pruning with look-ahead search
-    private double lookAhead(Board boardState, int depth, double alpha, double beta) {
-        // Return the evaluation if we've reached the maximum depth or game over
-        if (depth <= 0 || boardState.isGameOver()) {
-            return evaluatePosition(boardState);
-        }
-
-        // Check the cache for this position
-        String boardHash = getBoardHash(boardState);
-        if (positionCache.containsKey(boardHash)) {
-            return positionCache.get(boardHash);
-        }
-
-        List<Move> possibleMoves = boardState.getPossibleMoves();
-        if (possibleMoves.isEmpty()) {
-            return evaluatePosition(boardState);
+        for (int direction = 0; direction < cycleDirections.length; direction++) {
+            cycleDirections[direction] = detectCycle(direction);
         }
 
-        double bestScore = Double.NEGATIVE_INFINITY;
-
-        // Sort moves by a quick evaluation to optimize alpha-beta pruning
-        PriorityQueue<MoveEvaluation> rankedMoves = rankMoves(boardState, possibleMoves);
-
-        while (!rankedMoves.isEmpty()) {
-            Move move = rankedMoves.poll().move;
-
-            Board nextBoard = new Board(boardState);
-            if (!nextBoard.applyMove(move)) continue;
-
-            double score = lookAhead(nextBoard, depth - 1, alpha, beta);
-            bestScore = Math.max(bestScore, score);
-
-            // Alpha-beta pruning logic
-            alpha = Math.max(alpha, bestScore);
-            if (beta <= alpha) {
-                break;
-            }
+        // There is no opponent, so the next position is known: search it until nextMove is called again
+        main.state.make(bestDirection);
+        if (timed && main.state.legalMoves() != 0) {
+            main.clock.start(PONDER_LIMIT_NANOS, movesLeft - 1);
+            ponderer.start(() -> main.iterativeDeepening(1, 0), main.clock::requestStop);
         }
 
-        // Cache the result
-        positionCache.put(boardHash, bestScore);
-        return bestScore;
+        return bestMove;
     }
 
-    // Initial ranking of moves for the current board state
-    private PriorityQueue<MoveEvaluation> rankMoves(List<Move> possibleMoves) {
-        return rankMoves(board, possibleMoves);
+    @Override
+    public SearchStats lastMoveStats() {
+        return moveStats;
     }
 
-    // Rank moves for any board state
-    private PriorityQueue<MoveEvaluation> rankMoves(Board boardState, List<Move> possibleMoves) {
-        PriorityQueue<MoveEvaluation> rankedMoves = new PriorityQueue<>();
-
-        for (Move move : possibleMoves) {
-            Board simulatedBoard = new Board(boardState);
-            if (!simulatedBoard.applyMove(move)) continue;
-
-            // Calculate a quick heuristic score
-            double quickScore = quickEvaluate(boardState, simulatedBoard, move);
-
-            rankedMoves.add(new MoveEvaluation(move, quickScore));
-        }
+    @Override
+    public void stopPondering() {
+        ponderer.stop();
+    }
 
-        return rankedMoves;
+    // Searches the current game position to a fixed depth with an empty table and no time limit, on one thread (benchmarks)
+    double searchFixedDepth(int depth) {
+        ponderer.stop();
+        moveStats.begin(0);
+        mainSearcher.stats.reset();
+        mainSearcher.state.load(board);
+        transpositionTable.clear();
+        mainSearcher.clock.startUnlimited();
+        double score = mainSearcher.searchPosition(depth);
+        moveStats.add(mainSearcher.stats);
+        moveStats.end();
+        return score;
     }
 
-    // Quick evaluation function for move sorting
-    private double quickEvaluate(Board originalBoard, Board newBoard, Move move) {
-        // Prefer moves that visit more cells
-        double score = newBoard.getScore() - originalBoard.getScore();
+    /**
+     * The position values of the search, shared by the searches of all threads. It reads
+     * only the board it is given and the cycle flags, which change between searches.
+     */
+    private class PositionEvaluator implements Evaluator {
+        @Override
+        public void track(BitBoard state) {
+            state.trackNeighbors();
+            state.trackDegrees();
+        }
 
-        // Prefer moves that maintain more mobility options
-        score += 0.5 * newBoard.getPossibleMoves().size();
+        // Quick evaluation function for move sorting, read from the board's incremental counts without making the move
+        @Override
+        public double moveScore(BitBoard state, int direction) {
+            int target = state.target(direction);
 
-        // Avoid moves that lead to corners or edges where mobility is restricted
-        int boardSize = originalBoard.getSize();
-        int newRow = newBoard.getPlayerRow();
-        int newCol = newBoard.getPlayerCol();
+            // Prefer moves that visit more cells
+            double score = 1;
 
-        // Distance from the edge (higher is better)
-        int edgeDistance = Math.min(Math.min(newRow, boardSize - 1 - newRow),
-                Math.min(newCol, boardSize - 1 - newCol));
-        score += 0.3 * edgeDistance;
+            // Prefer moves that maintain more mobility options
+            score += 0.5 * state.degree(target);
 
-        // Analyze board connectivity after the move
-        score += 0.2 * analyzeConnectivity(newBoard);
+            // Avoid moves that lead to corners or edges where mobility is restricted
+            int boardSize = state.getSize();
+            int newRow = target / boardSize;
+            int newCol = target % boardSize;
 
-        // Penalize moves that might repeat patterns (cycling behavior)
-        if (detectCycle(move)) {
-            score -= 2.0;
-        }
+            // Distance from the edge (higher is better)
+            int edgeDistance = Math.min(Math.min(newRow, boardSize - 1 - newRow),
+                    Math.min(newCol, boardSize - 1 - newCol));
+            score += 0.3 * edgeDistance;
 
-        return score;
-    }
+            // Analyze board connectivity after the move; visiting the target removes its free neighbors twice
+            score += 0.2 * analyzeConnectivity(state.neighborConnectivity() - 2 * state.freeNeighbors(target), boardSize);
 
-    // Comprehensive evaluation of a board position
-    private double evaluatePosition(Board boardState) {
-        double score = 0;
-
-        // Primary score is the number of visited cells
-        score += 2.0 * boardState.getScore();
-
-        // Mobility score (number of possible moves)
-        List<Move> possibleMoves = boardState.getPossibleMoves();
-        score += 1.5 * possibleMoves.size();
+            // Penalize moves that might repeat patterns (cycling behavior)
+            if (cycleDirections[direction]) {
+                score -= 2.0;
+            }
 
-        // If there are no possible moves, this is game over
-        if (possibleMoves.isEmpty()) {
             return score;
         }
 
-        // Analyze future mobility
-        double futureMobility = 0;
-        for (Move move : possibleMoves) {
-            Board nextBoard = new Board(boardState);
-            if (nextBoard.applyMove(move)) {
-                futureMobility += nextBoard.getPossibleMoves().size();
-            }
-        }
+        // Comprehensive evaluation of the search board position
+        @Override
+        public double evaluate(BitBoard state) {
+            double score = 0;
 
-        // Average future mobility, weighted by its importance
-        if (!possibleMoves.isEmpty()) {
-            score += 0.8 * (futureMobility / possibleMoves.size());
-        }
+            // Primary score is the number of visited cells
+            score += visitedWeight * state.getScore();
 
-        // Board connectivity analysis (how connected the remaining cells are)
-        score += 0.5 * analyzeConnectivity(boardState);
+            // Mobility score (number of possible moves)
+            int possibleMoves = state.legalMoves();
+            int mobility = Integer.bitCount(possibleMoves);
+            score += mobilityWeight * mobility;
 
-        // Position on the board (prefer center over edges)
-        int boardSize = boardState.getSize();
-        int playerRow = boardState.getPlayerRow();
-        int playerCol = boardState.getPlayerCol();
+            // If there are no possible moves, this is game over
+            if (mobility == 0) {
+                return score;
+            }
 
-        // Distance from center (lower is better)
-        double centerRow = (boardSize - 1) / 2.0;
-        double centerCol = (boardSize - 1) / 2.0;
-        double distanceFromCenter = Math.sqrt(Math.pow(playerRow - centerRow, 2) +
-                Math.pow(playerCol - centerCol, 2));
+            // Analyze future mobility, read from the board's onward degrees without making the moves
+            double futureMobility = 0;
+            for (int moves = possibleMoves; moves != 0; moves &= moves - 1) {
+                futureMobility += state.degree(state.target(Integer.numberOfTrailingZeros(moves)));
+            }
 
-        // Normalize by board size and invert so higher values are better
-        double normalizedCenterDistance = 1.0 - (distanceFromCenter / (Math.sqrt(2) * boardSize / 2));
-        score += 0.3 * normalizedCenterDistance;
+            // Average future mobility, weighted by its importance
+            score += futureMobilityWeight * (futureMobility / mobility);
 
-        return score;
-    }
+            // Board connectivity analysis (how connected the remaining cells are)
+            score += connectivityWeight * analyzeConnectivity(state.neighborConnectivity(), state.getSize());
 
-    // Analyze how well-connected the remaining unvisited cells are
-    private double analyzeConnectivity(Board boardState) {
-        int connectivity = 0;
-        int boardSize = boardState.getSize();
-
-        // Check connectivity of each unvisited cell
-        for (int r = 0; r < boardSize; r++) {
-            for (int c = 0; c < boardSize; c++) {
-                if (!boardState.isVisited(r, c)) {
-                    int neighbors = countAccessibleNeighbors(boardState, r, c);
-                    connectivity += neighbors;
-                }
+            // Share of the free cells that the player can still reach
+            if (USE_REGION_SIZE) {
+                int freeCells = state.getSize() * state.getSize() - state.getScore();
+                score += 1.0 * state.reachableCells() / freeCells;
             }
-        }
-
-        // Normalize by the maximum possible connectivity
-        int maxConnectivity = 8 * boardSize * boardSize; // Each cell can have up to 8 neighbors
-        return (double) connectivity / maxConnectivity;
-    }
 
-    // Count accessible neighbors of a cell
-    private int countAccessibleNeighbors(Board boardState, int row, int col) {
-        int count = 0;
-        int[][] directions = {
-                {-1, 0}, {1, 0}, {0, -1}, {0, 1},
-                {-1, -1}, {-1, 1}, {1, -1}, {1, 1}
-        };
+            // Position on the board (prefer center over edges)
+            int boardSize = state.getSize();
+            int playerRow = state.getPlayerRow();
+            int playerCol = state.getPlayerCol();
 
-        int boardSize = boardState.getSize();
+            // Distance from center (lower is better)
+            double centerRow = (boardSize - 1) / 2.0;
+            double centerCol = (boardSize - 1) / 2.0;
+            double distanceFromCenter = Math.sqrt(Math.pow(playerRow - centerRow, 2) +
+                    Math.pow(playerCol - centerCol, 2));
 
-        for (int[] dir : directions) {
-            int newRow = row + dir[0];
-            int newCol = col + dir[1];
+            // Normalize by board size and invert so higher values are better
+            double normalizedCenterDistance = 1.0 - (distanceFromCenter / (Math.sqrt(2) * boardSize / 2));
+            score += centerWeight * normalizedCenterDistance;
 
-            if (newRow >= 0 && newRow < boardSize &&
-                    newCol >= 0 && newCol < boardSize &&
-                    !boardState.isVisited(newRow, newCol)) {
-                count++;
-            }
+            return score;
         }
-
-        return count;
-    }
-
-    // Generate a simple hash of the board state for caching
-    private String getBoardHash(Board boardState) {
-        StringBuilder hash = new StringBuilder();
-        hash.append(boardState.getPlayerRow()).append(",");
-        hash.append(boardState.getPlayerCol()).append(":");
-
-        // Add a simplified representation of visited cells
-        int boardSize = boardState.getSize();
-        for (int r = 0; r < boardSize; r++) {
-            for (int c = 0; c < boardSize; c++) {
-                if (boardState.isVisited(r, c)) {
-                    hash.append(r).append(",").append(c).append(";");
-                }
-            }
+        // Analyze how well-connected the remaining unvisited cells are, given the accessible
+        // neighbors summed over the unvisited cells (kept up to date by every make/unmake)
+        private double analyzeConnectivity(int connectivity, int boardSize) {
+            // Normalize by the maximum possible connectivity
+            int maxConnectivity = 8 * boardSize * boardSize; // Each cell can have up to 8 neighbors
+            return (double) connectivity / maxConnectivity;
         }
-
-        return hash.toString();
     }
 
     // Detect potential move cycles to avoid getting stuck in loops
-    private boolean detectCycle(Move currentMove) {
+    private boolean detectCycle(int currentDirection) {
         if (moveHistory.size() < 4) return false;
 
         // Check for direct back-and-forth pattern
@@ -303,7 +326,8 @@ public class Player16073 extends Player {
         Move lastMove = moveHistory.get(historySize - 1);
 
         // If the new move is the reverse of the last move
-        if (isReverse(currentMove, lastMove)) {
+        if (moveTable.dRow[currentDirection] == -lastMove.getDRow()
+                && moveTable.dCol[currentDirection] == -lastMove.getDCol()) {
             return true;
         }
 
@@ -336,21 +360,4 @@ public class Player16073 extends Player {
     private boolean isSameMove(Move m1, Move m2) {
         return m1.getDRow() == m2.getDRow() && m1.getDCol() == m2.getDCol();
     }
-
-    // Inner class for move evaluation
-    private class MoveEvaluation implements Comparable<MoveEvaluation> {
-        Move move;
-        double score;
-
-        public MoveEvaluation(Move move, double score) {
-            this.move = move;
-            this.score = score;
-        }
-
-        @Override
-        public int compareTo(MoveEvaluation other) {
-            // We want the highest scores first (descending order)
-            return Double.compare(other.score, this.score);
-        }
-    }
 }
\ No newline at end of file
@@ -1,15 +1,24 @@
 package players;
 
 import game.*;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Random;
 
-public class Player20220808025 extends Player {
+public class Player20220808025 extends Player implements SearchTelemetry {
     private final int boardSize;
-    private final Random random;
+    private final MoveTable moveTable;
+    private final BitBoard root;
+    private final RolloutEngine rollouts; // Playouts run in parallel on all cores
+    private final MinimaxSearch search;
+    private final SearchClock clock = new SearchClock(1024); // Polls the time every 1024 nodes
+    // Solved positions for small boards, generated offline by BookGenerator (empty if no file)
+    private final PositionBook openingBook;
+    private final PositionBook endgameTable;
+    private final SearchStats moveStats = new SearchStats("Player20220808025");
 
     // Parameters for Monte Carlo simulation
-    private static final int SIMULATION_COUNT = 5000;
+    private static final int MAX_SIMULATIONS = 20000; // Upper bound on playouts per move
+    private static final long SIMULATION_TIME_MS = 800; // Playouts stop here, well inside the 1 second limit
 
     // Parameters for Minimax algorithm
     private final int SEARCH_DEPTH = 7;
@@ -18,7 +27,19 @@ public class Player20220808025 extends Player {
     public Player20220808025(Board board) {
         super(board);
         this.boardSize = board.getSize();
-        this.random = new Random();
+        this.moveTable = MoveTable.forBoard(board);
+        this.root = new BitBoard(moveTable);
+        this.root.trackSymmetries(); // Books are keyed by canonical hash
+        this.rollouts = new RolloutEngine(moveTable);
+        this.search = new MinimaxSearch(moveTable);
+        if (boardSize <= 10) {
+            Path books = PositionBook.directory();
+            this.openingBook = PositionBook.openOrEmpty(PositionBook.openingPath(books, boardSize), boardSize);
+            this.endgameTable = PositionBook.openOrEmpty(PositionBook.endgamePath(books, boardSize), boardSize);
+        } else {
+            this.openingBook = PositionBook.EMPTY;
+            this.endgameTable = PositionBook.EMPTY;
+        }
     }
 
     @Override
@@ -33,12 +54,32 @@ public class Player20220808025 extends Player {
     private Move monteCarloNextMove() {
         List<Move> possibleMoves = board.getPossibleMoves();
         if (possibleMoves.isEmpty()) return null;
+        moveStats.begin(SIMULATION_TIME_MS * 1_000_000);
+        if (possibleMoves.size() == 1) {
+            moveStats.end();
+            return possibleMoves.get(0);
+        }
+
+        long deadline = System.nanoTime() + SIMULATION_TIME_MS * 1_000_000;
+        root.load(board);
+
+        // Positions in the book are answered without spending any search time
+        Move bookMove = probeBooks();
+        if (bookMove != null) {
+            moveStats.end();
+            return bookMove;
+        }
+
+        double[] averageScores = rollouts.averageScores(root, root.legalMoves(), deadline, MAX_SIMULATIONS);
+        moveStats.add(rollouts.stats());
+        moveStats.stopReason = rollouts.stats().stopReason;
+        moveStats.end();
 
         Move bestMove = null;
         double bestScore = -1;
 
         for (Move move : possibleMoves) {
-            double averageScore = simulateMove(move);
+            double averageScore = averageScores[moveTable.direction(move)];
             if (averageScore > bestScore) {
                 bestScore = averageScore;
                 bestMove = move;
@@ -47,87 +88,42 @@ public class Player20220808025 extends Player {
         return bestMove;
     }
 
-    private double simulateMove(Move move) {
-        double totalScore = 0;
-        for (int i = 0; i < SIMULATION_COUNT; i++) {
-            Board simulationBoard = new Board(board);
-            simulationBoard.applyMove(move);
-            totalScore += simulateGame(simulationBoard);
+    // Book move for the position in root, or null if neither book has it
+    private Move probeBooks() {
+        long hash = root.getCanonicalHash();
+        moveStats.cacheProbes++;
+        int entry = endgameTable.probe(hash);
+        if (entry < 0 || !PositionBook.isExact(entry)) {
+            entry = openingBook.probe(hash);
         }
-        return totalScore / SIMULATION_COUNT;
-    }
-
-    private double simulateGame(Board simulationBoard) {
-        while (!simulationBoard.isGameOver()) {
-            List<Move> possibleMoves = simulationBoard.getPossibleMoves();
-            if (possibleMoves.isEmpty()) break;
+        if (entry < 0) return null;
 
-            Move randomMove = possibleMoves.get(random.nextInt(possibleMoves.size()));
-            simulationBoard.applyMove(randomMove);
-        }
-        return simulationBoard.getScore();
+        int direction = PositionBook.directionFor(entry, root);
+        if ((root.legalMoves() & (1 << direction)) == 0) return null; // Hash collision
+        moveStats.cacheHits++;
+        return moveTable.toMove(board, direction);
     }
 
     private Move minimaxNextMove() {
-        long startTime = System.currentTimeMillis();
         List<Move> possibleMoves = board.getPossibleMoves();
         if (possibleMoves.isEmpty()) return null;
 
-        Move bestMove = null;
-        int bestValue = Integer.MIN_VALUE;
-
-        for (Move move : possibleMoves) {
-            if (System.currentTimeMillis() - startTime >= TIME_LIMIT_MS) {
-                break; // If time limit is exceeded, return the best move found so far
-            }
-            // Create a copy of the board state and apply the move
-            Board simulatedBoard = new Board(board);
-            if (!simulatedBoard.applyMove(move)) continue;
-
-            int val = minimax(simulatedBoard, SEARCH_DEPTH, move, startTime);
-
-            // Penalize moves that are close to the board edge
-            int newRow = board.getPlayerRow() + move.getDRow();
-            int newCol = board.getPlayerCol() + move.getDCol();
-            int boardSize = board.getSize();
-            if (newRow < 2 || newRow > boardSize - 3 || newCol < 2 || newCol > boardSize - 3) {
-                val -= 5;
-            }
-
-            if (val > bestValue) {
-                bestValue = val;
-                bestMove = move;
-            }
-        }
-        return bestMove;
+        moveStats.begin(TIME_LIMIT_MS * 1_000_000L);
+        clock.start(TIME_LIMIT_MS * 1_000_000L, boardSize * boardSize - board.getScore());
+        search.setRoot(board);
+
+        // Deepen one ply at a time; if the time limit is hit, the deepest finished result is used.
+        // Moves close to the board edge are penalized at the root by the search.
+        int direction = search.iterativeDeepening(SEARCH_DEPTH, -1, clock);
+        moveStats.add(search.stats());
+        moveStats.stopReason = search.stats().stopReason;
+        moveStats.end();
+        return moveTable.toMove(board, direction);
     }
 
-    private int minimax(Board boardState, int depth, Move previousMove, long startTime) {
-        if (depth == 0 || boardState.isGameOver() || System.currentTimeMillis() - startTime >= TIME_LIMIT_MS) {
-            return evaluateBoard(boardState);
-        }
-
-        int best = Integer.MIN_VALUE;
-        List<Move> moves = boardState.getPossibleMoves();
-        for (Move move : moves) {
-            Board newBoard = new Board(boardState);
-            if (!newBoard.applyMove(move)) continue;
-
-            int score = minimax(newBoard, depth - 1, move, startTime);
-            if (previousMove != null && isReverse(previousMove, move)) {
-                score -= 10;
-            }
-            best = Math.max(best, score);
-        }
-        best += boardState.getPossibleMoves().size();
-        return best;
-    }
-
-    private int evaluateBoard(Board boardState) {
-        return boardState.getScore() + 2 * boardState.getPossibleMoves().size();
-    }
-
-    private boolean isReverse(Move m1, Move m2) {
-        return m1.getDRow() == -m2.getDRow() && m1.getDCol() == -m2.getDCol();
+    // Book lookups count as cache probes on the Monte Carlo path
+    @Override
+    public SearchStats lastMoveStats() {
+        return moveStats;
     }
 }
\ No newline at end of file
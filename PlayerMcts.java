@@ -0,0 +1,60 @@
+package players;
+import game.*;
+
+/**
+ * Monte Carlo Tree Search (UCT) player. Unlike the flat Monte Carlo players, which
+ * split their playouts evenly over the root moves, the tree steers playouts toward
+ * the most promising lines, and the subtree under the chosen move is kept for the
+ * next call of nextMove(). Between calls the tree keeps growing in the background
+ * from the position after the chosen move (pondering).
+ */
+public class PlayerMcts extends Player implements SearchTelemetry, Pondering {
+    private static final long TIME_BUDGET_MS = 800; // Search stops here, well inside the 1 second limit
+    private static final int TREE_CAPACITY = 1 << 18; // Nodes in the pool
+    private static final long PONDER_LIMIT_MS = 1000; // Background search ends here if nextMove is not called again
+
+    private final MoveTable moveTable;
+    private final MctsTree tree;
+    private final Ponderer ponderer = new Ponderer();
+    private final SearchStats moveStats = new SearchStats("PlayerMcts");
+
+    public PlayerMcts(Board board) {
+        super(board);
+        this.moveTable = MoveTable.forBoard(board);
+        this.tree = new MctsTree(moveTable, TREE_CAPACITY);
+    }
+
+    @Override
+    public Move nextMove() {
+        long deadline = System.nanoTime() + TIME_BUDGET_MS * 1_000_000;
+        // The background search stops within one playout; the tree it grew is reused below
+        ponderer.stop();
+        tree.resetStop();
+        if (board.getPossibleMoves().isEmpty()) return null;
+
+        moveStats.begin(TIME_BUDGET_MS * 1_000_000);
+        tree.setRoot(board);
+        tree.search(deadline);
+        moveStats.add(tree.stats());
+        moveStats.stopReason = tree.stats().stopReason;
+        moveStats.end();
+
+        int direction = tree.bestDirection();
+        Move move = moveTable.toMove(board, direction);
+        tree.advance(direction);
+        if (!tree.isRootTerminal()) {
+            ponderer.start(() -> tree.search(System.nanoTime() + PONDER_LIMIT_MS * 1_000_000), tree::requestStop);
+        }
+        return move;
+    }
+
+    @Override
+    public SearchStats lastMoveStats() {
+        return moveStats;
+    }
+
+    @Override
+    public void stopPondering() {
+        ponderer.stop();
+    }
+}
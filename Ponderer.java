@@ -0,0 +1,47 @@
+package players;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a player's speculative search on a background thread between nextMove() calls.
+ * The thread comes from the shared SearchThreads pool, so a player owns none of its own.
+ * The game has no opponent, so the position after the move just returned is known
+ * exactly and a search started on it is never wasted. The search itself must
+ * poll a stop flag that the given stop signal sets; stop() raises it and waits, so a
+ * background search never overlaps the player's own search or its time budget. A
+ * player that ponders implements Pondering, so the arena can stop it when the game ends.
+ *
+ * Only Player16073 and PlayerMcts ponder. The others keep no transposition table or
+ * tree from one move to the next, so a background search would leave nothing for
+ * the next nextMove() call to reuse.
+ */
+final class Ponderer {
+    private Future<?> running;
+    private Runnable stopSignal;
+
+    // Starts a background search, stopping any previous one first
+    void start(Runnable search, Runnable stopSignal) {
+        stop();
+        this.stopSignal = stopSignal;
+        this.running = SearchThreads.submit(search);
+    }
+
+    // Signals the background search to stop and waits until it has; does nothing when idle
+    void stop() {
+        if (running == null) {
+            return;
+        }
+        stopSignal.run();
+        try {
+            running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Background search failed", e.getCause());
+        } finally {
+            running = null;
+            stopSignal = null;
+        }
+    }
+}
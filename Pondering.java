@@ -0,0 +1,12 @@
+package players;
+
+/**
+ * Implemented by players that keep searching between nextMove() calls (see Ponderer).
+ * Whoever runs the game calls stopPondering() once the player will not be asked for
+ * another move, because the game ended, a move timed out or nextMove() threw, so the
+ * background search does not take a core from the games that are still running.
+ */
+public interface Pondering {
+    // Stops the background search and waits for it; does nothing when none is running
+    void stopPondering();
+}
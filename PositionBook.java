@@ -0,0 +1,160 @@
+package players;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Read-only table of solved positions, memory-mapped from a file written by
+ * BookGenerator. Entries are sorted by the position's canonical Zobrist hash
+ * (BitBoard.getCanonicalHash), so a probe is a binary search in the mapped file: nothing
+ * is parsed or copied at startup, and the operating system pages in only the parts that
+ * are probed. One entry serves a position and all its rotations and reflections; its
+ * direction is the best move of the canonical image (see directionFor).
+ *
+ * File layout (big-endian): int magic, int board size, int entry count, int reserved,
+ * then per entry a long hash and an int value packing the best direction (bits 0-7),
+ * the final score reached with best play (bits 8-23) and an exact flag (bit 24).
+ */
+public final class PositionBook {
+    private static final int MAGIC = 0x50424B32; // "PBK2", keyed by canonical hash
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = 12;
+    private static final int EXACT_FLAG = 1 << 24;
+
+    public static final PositionBook EMPTY = new PositionBook(null, 0);
+
+    // Where players look for books, unless the players.books system property says otherwise
+    public static final String DEFAULT_DIRECTORY = "books";
+
+    private final ByteBuffer entries;
+    private final int count;
+
+    private PositionBook(ByteBuffer entries, int count) {
+        this.entries = entries;
+        this.count = count;
+    }
+
+    public static PositionBook open(Path path, int boardSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a position book: " + path);
+            }
+            if (buffer.getInt(4) != boardSize) {
+                throw new IOException("Position book " + path + " is for board size " + buffer.getInt(4));
+            }
+            int count = buffer.getInt(8);
+            if ((long) HEADER_BYTES + (long) count * ENTRY_BYTES > buffer.limit()) {
+                throw new IOException("Truncated position book: " + path);
+            }
+            return new PositionBook(buffer, count);
+        }
+    }
+
+    // A missing or unreadable book just means every probe misses
+    public static PositionBook openOrEmpty(Path path, int boardSize) {
+        if (!Files.isReadable(path)) {
+            return EMPTY;
+        }
+        try {
+            return open(path, boardSize);
+        } catch (IOException e) {
+            return EMPTY;
+        }
+    }
+
+    public static Path directory() {
+        return Paths.get(System.getProperty("players.books", DEFAULT_DIRECTORY));
+    }
+
+    public static Path openingPath(Path directory, int boardSize) {
+        return directory.resolve("opening-" + boardSize + ".book");
+    }
+
+    public static Path endgamePath(Path directory, int boardSize) {
+        return directory.resolve("endgame-" + boardSize + ".book");
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Packed value stored for the position, or -1 if it is not in the book
+    public int probe(long hash) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long key = entries.getLong(HEADER_BYTES + mid * ENTRY_BYTES);
+            if (key < hash) {
+                low = mid + 1;
+            } else if (key > hash) {
+                high = mid - 1;
+            } else {
+                return entries.getInt(HEADER_BYTES + mid * ENTRY_BYTES + 8);
+            }
+        }
+        return -1;
+    }
+
+    public static int pack(int direction, int finalScore, boolean exact) {
+        return direction | (finalScore << 8) | (exact ? EXACT_FLAG : 0);
+    }
+
+    public static int direction(int value) {
+        return value & 0xFF;
+    }
+
+    // Best move of the entry translated to the given position, which must track symmetries
+    public static int directionFor(int value, BitBoard position) {
+        MoveTable table = position.table;
+        int symmetry = table.inverseSymmetry[position.canonicalSymmetry()];
+        return table.symmetricDirection[symmetry][direction(value)];
+    }
+
+    // Packs a position's best move in the frame of its canonical image; the position must track symmetries
+    public static int packFor(BitBoard position, int direction, int finalScore, boolean exact) {
+        int canonicalDirection = position.table.symmetricDirection[position.canonicalSymmetry()][direction];
+        return pack(canonicalDirection, finalScore, exact);
+    }
+
+    public static int finalScore(int value) {
+        return (value >>> 8) & 0xFFFF;
+    }
+
+    // True when the position was solved completely, not cut off by the generator's node limit
+    public static boolean isExact(int value) {
+        return (value & EXACT_FLAG) != 0;
+    }
+
+    // Writes entries sorted by hash; hashes and values are parallel arrays
+    public static void write(Path path, int boardSize, long[] hashes, int[] values) throws IOException {
+        Integer[] order = new Integer[hashes.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + hashes.length * ENTRY_BYTES);
+        buffer.putInt(MAGIC).putInt(boardSize).putInt(hashes.length).putInt(0);
+        for (int i : order) {
+            buffer.putLong(hashes[i]).putInt(values[i]);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package players;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Flat Monte Carlo evaluation of root moves, run in parallel on the calling thread and
+ * the common ForkJoin pool. The caller plays one worker's share itself rather than
+ * waiting, since the pool has one thread fewer than there are cores. Each worker has its own SplittableRandom and scratch BitBoard, so a rollout
+ * allocates nothing, and workers keep playing rounds over all candidate moves until
+ * the deadline, or until each move has had enough rollouts, instead of stopping at a
+ * fixed simulation count. The workers' counts come back with their results, and
+ * stats() sums them for the last call on the calling thread.
+ */
+final class RolloutEngine {
+    private final MoveTable table;
+    private final ForkJoinPool pool;
+    private final SplittableRandom seeds;
+    private final SearchStats stats = new SearchStats();
+
+    RolloutEngine(MoveTable table) {
+        this.table = table;
+        this.pool = ForkJoinPool.commonPool();
+        this.seeds = new SplittableRandom();
+    }
+
+    /**
+     * Returns the average final score of random playouts after each candidate move,
+     * indexed by direction. Directions not in candidates are left at -1. Stops at the
+     * deadline or once every candidate has had maxRollouts playouts.
+     */
+    double[] averageScores(BitBoard root, int candidates, long deadline, int maxRollouts) {
+        int workers = Math.min(Runtime.getRuntime().availableProcessors(), pool.getParallelism() + 1);
+        int rounds = (maxRollouts + workers - 1) / workers;
+        List<Future<long[]>> results = new ArrayList<>(workers - 1);
+        for (int i = 1; i < workers; i++) {
+            SplittableRandom random = seeds.split();
+            results.add(pool.submit(() -> playRounds(root, candidates, deadline, rounds, random)));
+        }
+
+        long[] totals = playRounds(root, candidates, deadline, rounds, seeds.split());
+        for (Future<long[]> result : results) {
+            long[] partial = join(result);
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += partial[i];
+            }
+        }
+
+        stats.reset();
+        double[] averages = new double[table.directions];
+        for (int d = 0; d < table.directions; d++) {
+            long count = totals[2 * d + 1];
+            averages[d] = count == 0 ? -1 : (double) totals[2 * d] / count;
+            stats.rollouts += count;
+            // Every playout visits final score - root score positions
+            stats.nodes += totals[2 * d] - count * root.getScore();
+        }
+        if (System.nanoTime() - deadline >= 0) {
+            stats.stopReason = SearchStats.HARD_LIMIT;
+        }
+        return averages;
+    }
+
+    // Counters of the last averageScores call
+    SearchStats stats() {
+        return stats;
+    }
+
+    // Returns {score sum, rollout count} pairs per direction
+    private long[] playRounds(BitBoard root, int candidates, long deadline, int rounds, SplittableRandom random) {
+        long[] totals = new long[2 * table.directions];
+        BitBoard scratch = new BitBoard(table);
+        do {
+            for (int moves = candidates; moves != 0; moves &= moves - 1) {
+                int direction = Integer.numberOfTrailingZeros(moves);
+                scratch.copyFrom(root);
+                scratch.apply(direction);
+                totals[2 * direction] += rollout(scratch, random);
+                totals[2 * direction + 1]++;
+            }
+        } while (--rounds > 0 && System.nanoTime() - deadline < 0);
+        return totals;
+    }
+
+    // Plays uniformly random moves to the end of the game and returns the score
+    static int rollout(BitBoard state, SplittableRandom random) {
+        int moves;
+        while ((moves = state.legalMoves()) != 0) {
+            state.apply(BitBoard.nthDirection(moves, random.nextInt(Integer.bitCount(moves))));
+        }
+        return state.getScore();
+    }
+
+    private static long[] join(Future<long[]> result) {
+        try {
+            return result.get();
+        } catch (Exception e) {
+            throw new IllegalStateException("Rollout worker failed", e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+
+// Machine-readable summary of one emulator run, written as JSON or CSV
+public class RunReport {
+    private static final String[] MNEMONICS = {
+            "START", "LOAD", "LOADM", "STORE", "CMPM", "CJMP", "JMP", "ADD",
+            "ADDM", "SUB", "SUBM", "MUL", "MULM", "DISP", "HALT", "INVALID"
+    };
+
+    private final long instructions;
+    private final long wallNanos;
+    private final long[] opcodeCounts;
+    private final int hits;
+    private final int misses;
+    private final int evictions;
+    private final boolean victimCache;
+    private final int victimHits;
+    private final int pc;
+    private final short ac;
+    private final boolean flag;
+    private final List<double[]> samples;
+
+    public RunReport(CPUEmulator emulator) {
+        Cache cache = emulator.getCache();
+        this.instructions = emulator.getInstructionCount();
+        this.wallNanos = emulator.getExecutionNanos();
+        this.opcodeCounts = emulator.getOpcodeCounts();
+        this.hits = cache.getHits();
+        this.misses = cache.getMisses();
+        this.evictions = cache.getEvictions();
+        this.victimCache = cache.hasVictimCache();
+        this.victimHits = cache.getVictimHits();
+        this.pc = emulator.getPC();
+        this.ac = emulator.getAC();
+        this.flag = emulator.getFlag();
+        this.samples = emulator.getHitRatioSamples();
+    }
+
+    public double getInstructionsPerSecond() {
+        return wallNanos == 0 ? 0 : instructions * 1e9 / wallNanos;
+    }
+
+    private double getHitRatio() {
+        int total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total * 100;
+    }
+
+    // Picks the format from the file extension: ".csv" writes CSV, anything else JSON
+    public void write(String path) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(path))) {
+            if (path.toLowerCase(Locale.ROOT).endsWith(".csv")) {
+                writeCsv(out);
+            } else {
+                writeJson(out);
+            }
+        }
+    }
+
+    public void writeJson(PrintWriter out) {
+        out.println("{");
+        out.printf(Locale.ROOT, "  \"instructions\": %d,%n", instructions);
+        out.printf(Locale.ROOT, "  \"wallTimeNanos\": %d,%n", wallNanos);
+        out.printf(Locale.ROOT, "  \"instructionsPerSecond\": %.1f,%n", getInstructionsPerSecond());
+
+        out.println("  \"opcodes\": {");
+        String separator = "";
+        for (int op = 0; op < opcodeCounts.length; op++) {
+            if (opcodeCounts[op] == 0) continue;
+            out.printf(Locale.ROOT, "%s    \"%s\": %d", separator, MNEMONICS[op], opcodeCounts[op]);
+            separator = ",\n";
+        }
+        out.println();
+        out.println("  },");
+
+        out.println("  \"cache\": {");
+        out.printf(Locale.ROOT, "    \"hits\": %d,%n", hits);
+        out.printf(Locale.ROOT, "    \"misses\": %d,%n", misses);
+        out.printf(Locale.ROOT, "    \"evictions\": %d,%n", evictions);
+        if (victimCache) {
+            out.printf(Locale.ROOT, "    \"victimHits\": %d,%n", victimHits);
+        }
+        out.printf(Locale.ROOT, "    \"hitRatio\": %.4f%n", getHitRatio());
+        out.println("  },");
+
+        out.println("  \"registers\": {");
+        out.printf(Locale.ROOT, "    \"pc\": %d,%n", pc);
+        out.printf(Locale.ROOT, "    \"ac\": %d,%n", ac);
+        out.printf(Locale.ROOT, "    \"flag\": %b%n", flag);
+        out.println("  },");
+
+        out.print("  \"hitRatioSamples\": [");
+        separator = "\n";
+        for (double[] sample : samples) {
+            out.printf(Locale.ROOT, "%s    {\"instructions\": %d, \"hitRatio\": %.4f}",
+                    separator, (long) sample[0], sample[1]);
+            separator = ",\n";
+        }
+        out.println(samples.isEmpty() ? "]" : "\n  ]");
+        out.println("}");
+    }
+
+    // Two columns, one metric per row, so every run parses with the same reader
+    public void writeCsv(PrintWriter out) {
+        out.println("metric,value");
+        out.printf(Locale.ROOT, "instructions,%d%n", instructions);
+        out.printf(Locale.ROOT, "wallTimeNanos,%d%n", wallNanos);
+        out.printf(Locale.ROOT, "instructionsPerSecond,%.1f%n", getInstructionsPerSecond());
+        for (int op = 0; op < opcodeCounts.length; op++) {
+            if (opcodeCounts[op] == 0) continue;
+            out.printf(Locale.ROOT, "opcode.%s,%d%n", MNEMONICS[op], opcodeCounts[op]);
+        }
+        out.printf(Locale.ROOT, "cache.hits,%d%n", hits);
+        out.printf(Locale.ROOT, "cache.misses,%d%n", misses);
+        out.printf(Locale.ROOT, "cache.evictions,%d%n", evictions);
+        if (victimCache) {
+            out.printf(Locale.ROOT, "cache.victimHits,%d%n", victimHits);
+        }
+        out.printf(Locale.ROOT, "cache.hitRatio,%.4f%n", getHitRatio());
+        out.printf(Locale.ROOT, "register.pc,%d%n", pc);
+        out.printf(Locale.ROOT, "register.ac,%d%n", ac);
+        out.printf(Locale.ROOT, "register.flag,%b%n", flag);
+        for (double[] sample : samples) {
+            out.printf(Locale.ROOT, "sample.%d,%.4f%n", (long) sample[0], sample[1]);
+        }
+    }
+}
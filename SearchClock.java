@@ -0,0 +1,85 @@
+package players;
+
+/**
+ * Time manager for the search players, based on System.nanoTime. The hard deadline
+ * aborts a search in progress; it is polled only every pollInterval nodes through
+ * tick(), so the per-node cost is a decrement. The soft limit decides whether another
+ * iteration of iterative deepening is worth starting. startUnlimited() times a search
+ * that only ends on requestStop() or when it has searched everything it was asked to.
+ */
+final class SearchClock {
+    // With this many moves left the soft limit drops to a quarter of the hard budget
+    private static final int ENDGAME_MOVES = 8;
+
+    private final int pollMask;
+    private long start;
+    private long softDeadline;
+    private long hardDeadline;
+    private int countdown;
+    private boolean expired;
+    private boolean unlimited;  // No deadlines, only stop requests
+    // Set from another thread to end the search at the next poll
+    private volatile boolean stopRequested;
+
+    // pollInterval must be a power of two
+    SearchClock(int pollInterval) {
+        if (Integer.bitCount(pollInterval) != 1) {
+            throw new IllegalArgumentException("Poll interval must be a power of two: " + pollInterval);
+        }
+        this.pollMask = pollInterval - 1;
+    }
+
+    /**
+     * Starts timing a move. The hard budget is never exceeded by more than one poll
+     * interval. The soft budget is half the hard one, since the next iteration usually
+     * costs more than all earlier ones together, and it shrinks further near the end
+     * of the game, where little is gained from spending the full budget on one move.
+     */
+    void start(long hardBudgetNanos, int movesLeft) {
+        start = System.nanoTime();
+        hardDeadline = start + hardBudgetNanos;
+        softDeadline = start + hardBudgetNanos / 2 * Math.max(movesLeft, 0) / (Math.max(movesLeft, 0) + ENDGAME_MOVES);
+        countdown = pollMask;
+        expired = false;
+        unlimited = false;
+        stopRequested = false;
+    }
+
+    // Starts timing a search without deadlines: it expires only through requestStop()
+    void startUnlimited() {
+        start = System.nanoTime();
+        countdown = pollMask;
+        expired = false;
+        unlimited = true;
+        stopRequested = false;
+    }
+
+    // Makes the search using this clock stop within one poll interval; safe from any thread
+    void requestStop() {
+        stopRequested = true;
+    }
+
+    // Called once per node; returns true once the hard deadline has passed
+    boolean tick() {
+        if (--countdown < 0) {
+            countdown = pollMask;
+            if (stopRequested || (!unlimited && System.nanoTime() - hardDeadline >= 0)) {
+                expired = true;
+            }
+        }
+        return expired;
+    }
+
+    boolean isExpired() {
+        return expired;
+    }
+
+    // True when a new iterative-deepening iteration should not be started
+    boolean isSoftExpired() {
+        return expired || (!unlimited && System.nanoTime() - softDeadline >= 0);
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,139 @@
+package players;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Counters for the search behind one move. Each search thread owns its own instance and
+ * bumps plain primitive fields, so counting costs an increment, with no atomics and no
+ * ThreadLocal lookups. A player keeps one more instance for the move as a whole: it calls
+ * begin() when nextMove() starts, folds in its engines' counters with add() and calls
+ * end(), which also emits a MoveSearchEvent if a JDK Flight Recorder recording has it
+ * enabled (e.g. -XX:StartFlightRecording with the default settings).
+ */
+public final class SearchStats {
+    // Why the search of a move ended
+    public static final int COMPLETED = 0;   // It reached its depth or playout limit
+    public static final int SOFT_LIMIT = 1;  // No further iteration was started, it would not have finished in time
+    public static final int HARD_LIMIT = 2;  // The deadline cut it off in the middle
+    public static final int STOPPED = 3;     // Another thread asked it to stop (the end of pondering)
+
+    private final String player;  // Null for the counters of a single engine or thread
+    long nodes;       // Positions searched (for playouts: moves played)
+    int depth;        // Plies of the deepest completed iteration (MCTS: deepest tree node reached)
+    long cacheProbes; // Transposition table, position book or search tree lookups
+    long cacheHits;
+    long rollouts;
+    int stopReason;
+    private long budgetNanos;
+    private long startNanos;
+    private long elapsedNanos;
+    private int moves;
+
+    SearchStats() {
+        this(null);
+    }
+
+    SearchStats(String player) {
+        this.player = player;
+    }
+
+    // Clears the counters and starts timing a move; budgetNanos is 0 for searches without a time limit
+    void begin(long budgetNanos) {
+        reset();
+        this.budgetNanos = budgetNanos;
+        this.startNanos = System.nanoTime();
+    }
+
+    void reset() {
+        nodes = 0;
+        depth = 0;
+        cacheProbes = 0;
+        cacheHits = 0;
+        rollouts = 0;
+        stopReason = COMPLETED;
+    }
+
+    // Adds another thread's counters; the stop reason stays this search's own
+    void add(SearchStats other) {
+        nodes += other.nodes;
+        depth = Math.max(depth, other.depth);
+        cacheProbes += other.cacheProbes;
+        cacheHits += other.cacheHits;
+        rollouts += other.rollouts;
+    }
+
+    void end() {
+        elapsedNanos = System.nanoTime() - startNanos;
+        moves++;
+
+        // Without a recording the JFR classes stay unloaded; loading them takes a fifth of a move's budget
+        if (!FlightRecorder.isInitialized()) {
+            return;
+        }
+        MoveSearchEvent event = new MoveSearchEvent();
+        if (event.isEnabled()) {
+            event.player = player;
+            event.move = moves;
+            event.nodes = nodes;
+            event.depth = depth;
+            event.cacheProbes = cacheProbes;
+            event.cacheHits = cacheHits;
+            event.rollouts = rollouts;
+            event.stopReason = stopReasonName(stopReason);
+            event.elapsed = elapsedNanos;
+            event.budget = budgetNanos;
+            event.commit();
+        }
+    }
+
+    public static String stopReasonName(int stopReason) {
+        switch (stopReason) {
+            case SOFT_LIMIT: return "soft-limit";
+            case HARD_LIMIT: return "hard-limit";
+            case STOPPED: return "stopped";
+            default: return "completed";
+        }
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getCacheProbes() {
+        return cacheProbes;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    // Fraction of cache probes that hit, or NaN if there were none
+    public double getCacheHitRate() {
+        return cacheProbes == 0 ? Double.NaN : (double) cacheHits / cacheProbes;
+    }
+
+    public long getRollouts() {
+        return rollouts;
+    }
+
+    public int getStopReason() {
+        return stopReason;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    // Time left of the budget when the search ended; how early a time-limited search gave up
+    public long getUnusedNanos() {
+        return budgetNanos == 0 ? 0 : Math.max(0, budgetNanos - elapsedNanos);
+    }
+}
@@ -0,0 +1,10 @@
+package players;
+
+/**
+ * Implemented by players that report what their search did within each move, so that
+ * the Arena can compare nodes per second, depth, cache hit rates and time use.
+ */
+public interface SearchTelemetry {
+    // Counters of the last nextMove() call; the player reuses the object for the next call
+    SearchStats lastMoveStats();
+}
@@ -0,0 +1,62 @@
+package players;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The background threads of all players in the JVM: one daemon pool shared by the helper
+ * searches and the ponderers, so that creating a player never starts threads of its own.
+ * Threads are made on demand and exit after a minute idle, so players that are no longer
+ * used leave nothing running.
+ *
+ * Helper searches also need a permit. There is one per core beyond the caller's own, so
+ * however many players search at once they never run more helpers than there are spare
+ * cores; a player that gets fewer permits than it asked for searches with fewer helpers.
+ * The Arena lowers the limit while it plays games in parallel.
+ */
+final class SearchThreads {
+    private static final ExecutorService POOL = new ThreadPoolExecutor(0, Integer.MAX_VALUE,
+            60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "players-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private static volatile int helperLimit = Runtime.getRuntime().availableProcessors() - 1;
+    private static final AtomicInteger helpersInUse = new AtomicInteger();
+
+    private SearchThreads() {
+    }
+
+    static Future<?> submit(Runnable task) {
+        return POOL.submit(task);
+    }
+
+    static int helperLimit() {
+        return helperLimit;
+    }
+
+    // Sets how many helper searches may run at once across all players; takes effect for later reservations
+    static void limitHelpers(int limit) {
+        helperLimit = Math.max(0, limit);
+    }
+
+    // Takes up to wanted helper permits without waiting and returns how many it got; give them back with releaseHelpers
+    static int reserveHelpers(int wanted) {
+        while (true) {
+            int inUse = helpersInUse.get();
+            int granted = Math.max(0, Math.min(wanted, helperLimit - inUse));
+            if (granted == 0 || helpersInUse.compareAndSet(inUse, inUse + granted)) {
+                return granted;
+            }
+        }
+    }
+
+    static void releaseHelpers(int count) {
+        helpersInUse.addAndGet(-count);
+    }
+}
@@ -0,0 +1,88 @@
+package players;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size transposition table in two primitive arrays. Each entry packs the score
+ * (as a float), the search depth, the bound type and the search generation into one
+ * long, and the key slot stores key ^ data: a torn or overwritten entry then fails the
+ * key check instead of returning another position's data.
+ *
+ * Replacement is depth-preferred: an entry is only overwritten by a search at least as
+ * deep, unless it belongs to the same position or to an older generation.
+ *
+ * Several search threads may probe and store concurrently without locks. Two threads
+ * writing the same slot can leave the key of one with the data of the other, but the
+ * key ^ data check then fails and the slot reads as empty. nextGeneration() and clear()
+ * must only be called while no search is running.
+ */
+public final class TranspositionTable {
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;  // Score is a lower bound (fail high)
+    public static final int UPPER = 2;  // Score is an upper bound (fail low)
+
+    private static final long USED = 1L << 12;  // Keeps a stored entry from packing to 0
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private int generation;
+
+    public TranspositionTable(int sizeLog2) {
+        this.keys = new long[1 << sizeLog2];
+        this.data = new long[1 << sizeLog2];
+        this.mask = (1 << sizeLog2) - 1;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+    }
+
+    // Called once per move so entries from earlier moves become replaceable
+    public void nextGeneration() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    private static long pack(double score, int depth, int bound, int generation) {
+        return ((long) Float.floatToRawIntBits((float) score) << 32)
+                | ((long) (depth & 0xFF) << 16) | USED | ((long) bound << 8) | generation;
+    }
+
+    public void store(long key, double score, int depth, int bound) {
+        int index = (int) key & mask;
+        long existing = data[index];
+        boolean samePosition = (keys[index] ^ existing) == key;
+        if (existing == 0 || samePosition || generation(existing) != generation || depth >= depth(existing)) {
+            long packed = pack(score, depth, bound, generation);
+            data[index] = packed;
+            keys[index] = key ^ packed;
+        }
+    }
+
+    // Returns the packed entry for the position, or 0 when it is not in the table
+    public long probe(long key) {
+        int index = (int) key & mask;
+        long entry = data[index];
+        if (entry == 0 || (keys[index] ^ entry) != key) {
+            return 0;
+        }
+        return entry;
+    }
+
+    public static double score(long entry) {
+        return Float.intBitsToFloat((int) (entry >>> 32));
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 16) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 8) & 0x3;
+    }
+
+    private static int generation(long entry) {
+        return (int) entry & 0xFF;
+    }
+}
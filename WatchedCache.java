@@ -0,0 +1,25 @@
+// Cache used by the debug engine. A load that hits never reaches memory, so the loaded
+// bytes are reported to WatchedMemory here as well as on a miss.
+public class WatchedCache extends Cache {
+    private WatchedMemory memory;
+
+    public WatchedCache(WatchedMemory memory, int victimEntries) {
+        super(memory, victimEntries);
+        this.memory = memory;
+    }
+
+    @Override
+    public byte read(int address) {
+        byte value = super.read(address);
+        memory.cachedRead(address, value);
+        return value;
+    }
+
+    @Override
+    public short readWord(int address) {
+        short value = super.readWord(address);
+        memory.cachedRead(address, (byte) value);
+        memory.cachedRead(address + 1, (byte) (value >> 8));
+        return value;
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.BitSet;
+
+// Memory that traps accesses to watched addresses. Only the debug engine uses it, so the
+// plain Memory used by normal runs carries no watchpoint checks.
+public class WatchedMemory extends Memory {
+    private static final int PAGE_BITS = 8;  // 256-byte pages
+    private static final int NUM_PAGES = 65536 >> PAGE_BITS;
+
+    private boolean[] watchedPages;
+    private BitSet watchedAddresses;
+    private boolean armed;
+
+    // Details of the last trap, cleared by takeTrap()
+    private boolean trapped;
+    private int trapAddress;
+    private byte trapValue;
+    private boolean trapWasWrite;
+
+    public WatchedMemory() {
+        this.watchedPages = new boolean[NUM_PAGES];
+        this.watchedAddresses = new BitSet();
+        this.armed = true;
+    }
+
+    public void watch(int address) {
+        if (address < 0 || address >= NUM_PAGES << PAGE_BITS) {
+            throw new IllegalArgumentException("Memory address out of bounds: " + address);
+        }
+        watchedAddresses.set(address);
+        watchedPages[address >> PAGE_BITS] = true;
+    }
+
+    public void unwatch(int address) {
+        watchedAddresses.clear(address);
+        int pageStart = (address >> PAGE_BITS) << PAGE_BITS;
+        int next = watchedAddresses.nextSetBit(pageStart);
+        watchedPages[address >> PAGE_BITS] = next >= 0 && next < pageStart + (1 << PAGE_BITS);
+    }
+
+    // Loading a program should not trip watchpoints on its own data
+    public void setArmed(boolean armed) {
+        this.armed = armed;
+    }
+
+    @Override
+    public byte read(int address) {
+        byte value = super.read(address);
+        cachedRead(address, value);
+        return value;
+    }
+
+    // Loads served by the cache never call read(), so WatchedCache reports them here
+    void cachedRead(int address, byte value) {
+        if (watchedPages[address >> PAGE_BITS]) {
+            checkTrap(address, value, false);
+        }
+    }
+
+    @Override
+    public void write(int address, byte value) {
+        super.write(address, value);
+        if (watchedPages[address >> PAGE_BITS]) {
+            checkTrap(address, value, true);
+        }
+    }
+
+    private void checkTrap(int address, byte value, boolean write) {
+        // A write-through store also refills the block; keep reporting the store
+        if (trapped && trapWasWrite && !write) {
+            return;
+        }
+        if (armed && watchedAddresses.get(address)) {
+            trapped = true;
+            trapAddress = address;
+            trapValue = value;
+            trapWasWrite = write;
+        }
+    }
+
+    // Returns whether a watched address was touched since the last call
+    public boolean takeTrap() {
+        boolean result = trapped;
+        trapped = false;
+        return result;
+    }
+
+    public int getTrapAddress() {
+        return trapAddress;
+    }
+
+    public byte getTrapValue() {
+        return trapValue;
+    }
+
+    public boolean wasTrapWrite() {
+        return trapWasWrite;
+    }
+}
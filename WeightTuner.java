@@ -0,0 +1,331 @@
+package players;
+import game.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Offline tuner for the evaluation weights of Player10000 and Player16073, by SPSA
+ * (simultaneous perturbation stochastic approximation) on self-play results.
+ *
+ * Each iteration perturbs every weight at once by +-c_k (relative to its default, random
+ * signs), plays the same set of games with both perturbed vectors and steps along the
+ * estimated gradient of the mean coverage. Both sides play from the same random openings
+ * and board sizes, so most of the game-to-game noise cancels out of the difference.
+ * Games run in parallel on a fixed thread pool, one game per task; Player16073 searches
+ * to a fixed depth without its time limit, so results do not depend on the machine load.
+ *
+ * Progress is checkpointed to a properties file every few iterations, and a run started
+ * with an existing checkpoint continues from it. At the end the tuned weights are played
+ * against the defaults on fresh openings, and the better of the two is written to
+ * OUT/PLAYER.properties, where the player loads it from (see EvaluationWeights).
+ *
+ * Usage: java players.WeightTuner PLAYER [--iterations=N] [--games=N] [--sizes=8,10,12]
+ *        [--depth=N] [--threads=N] [--step=X] [--perturbation=X] [--seed=N]
+ *        [--checkpoint=FILE] [--out=DIR]
+ */
+public class WeightTuner {
+    private static final String USAGE = "Usage: java players.WeightTuner PLAYER [--iterations=N] [--games=N] [--sizes=8,10,12]\n"
+            + "       [--depth=N] [--threads=N] [--step=X] [--perturbation=X] [--seed=N]\n"
+            + "       [--checkpoint=FILE] [--out=DIR]";
+    // Exponents of the SPSA gain sequences, the values recommended by Spall
+    private static final double STEP_DECAY = 0.602;
+    private static final double PERTURBATION_DECAY = 0.101;
+    // Weights stay between 0 and this multiple of their default, so penalties remain penalties
+    private static final double MAX_SCALE = 4.0;
+    private static final int OPENING_MOVES = 2;
+    private static final int CHECKPOINT_INTERVAL = 10;
+    // The final comparison plays this many times the games of one iteration per side
+    private static final int VALIDATION_FACTOR = 4;
+
+    // Creates a player for a game with the given weights
+    interface PlayerFactory {
+        Player create(Board board, EvaluationWeights weights);
+    }
+
+    private final String player;
+    private final EvaluationWeights defaults;
+    private final PlayerFactory factory;
+    private final int[] sizes;
+    private final int gamesPerSide;
+    private final double step;
+    private final double perturbation;
+    private final long seed;
+
+    public WeightTuner(String player, EvaluationWeights defaults, PlayerFactory factory, int[] sizes, int gamesPerSide,
+            double step, double perturbation, long seed) {
+        this.player = player;
+        this.defaults = defaults;
+        this.factory = factory;
+        this.sizes = sizes;
+        this.gamesPerSide = gamesPerSide;
+        this.step = step;
+        this.perturbation = perturbation;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println(USAGE);
+            return;
+        }
+        try {
+            String player = args[0];
+            int iterations = 200;
+            int games = 64;
+            int[] sizes = {8, 10, 12};
+            int depth = 3;
+            int threads = Runtime.getRuntime().availableProcessors();
+            double step = 1.0;
+            double perturbation = 0.1;
+            long seed = 1;
+            Path checkpoint = null;
+            Path out = Paths.get(EvaluationWeights.DEFAULT_DIRECTORY);
+            for (int i = 1; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.startsWith("--iterations=")) {
+                    iterations = Integer.parseInt(arg.substring("--iterations=".length()));
+                } else if (arg.startsWith("--games=")) {
+                    games = Integer.parseInt(arg.substring("--games=".length()));
+                } else if (arg.startsWith("--sizes=")) {
+                    sizes = Arrays.stream(arg.substring("--sizes=".length()).split(",")).mapToInt(Integer::parseInt).toArray();
+                } else if (arg.startsWith("--depth=")) {
+                    depth = Integer.parseInt(arg.substring("--depth=".length()));
+                } else if (arg.startsWith("--threads=")) {
+                    threads = Integer.parseInt(arg.substring("--threads=".length()));
+                } else if (arg.startsWith("--step=")) {
+                    step = Double.parseDouble(arg.substring("--step=".length()));
+                } else if (arg.startsWith("--perturbation=")) {
+                    perturbation = Double.parseDouble(arg.substring("--perturbation=".length()));
+                } else if (arg.startsWith("--seed=")) {
+                    seed = Long.parseLong(arg.substring("--seed=".length()));
+                } else if (arg.startsWith("--checkpoint=")) {
+                    checkpoint = Paths.get(arg.substring("--checkpoint=".length()));
+                } else if (arg.startsWith("--out=")) {
+                    out = Paths.get(arg.substring("--out=".length()));
+                } else {
+                    System.out.println(USAGE);
+                    return;
+                }
+            }
+            if (checkpoint == null) {
+                checkpoint = Paths.get(player + ".checkpoint");
+            }
+
+            WeightTuner tuner;
+            if (player.equals("Player10000")) {
+                tuner = new WeightTuner(player, Player10000.DEFAULT_WEIGHTS, Player10000::new, sizes, games,
+                        step, perturbation, seed);
+            } else if (player.equals("Player16073")) {
+                int searchDepth = depth;
+                tuner = new WeightTuner(player, Player16073.DEFAULT_WEIGHTS,
+                        (board, weights) -> new Player16073(board, weights, searchDepth), sizes, games,
+                        step, perturbation, seed);
+            } else {
+                System.out.println("No tunable weights for " + player + "; use Player10000 or Player16073");
+                return;
+            }
+
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+                Thread thread = new Thread(runnable, "tuner");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                EvaluationWeights tuned = tuner.tune(iterations, checkpoint, pool);
+                tuner.writeBest(tuned, EvaluationWeights.path(out, player), pool);
+            } finally {
+                pool.shutdownNow();
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid number in arguments: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs SPSA up to the given total number of iterations, continuing from the checkpoint
+     * file if there is one, and returns the tuned weights. The weights are tuned as
+     * multiples of their defaults, so one perturbation size suits all of them.
+     */
+    public EvaluationWeights tune(int iterations, Path checkpoint, ExecutorService pool)
+            throws IOException, InterruptedException {
+        int dimensions = defaults.size();
+        double[] scale = new double[dimensions];
+        Arrays.fill(scale, 1.0);
+        int first = 0;
+        if (Files.isReadable(checkpoint)) {
+            first = readCheckpoint(checkpoint, scale);
+            System.out.printf("Resuming %s from %s at iteration %d%n", player, checkpoint, first);
+        }
+        // Spall's stability constant: about a tenth of the iterations
+        double stability = Math.max(1, iterations / 10);
+
+        long start = System.nanoTime();
+        long gamesPlayed = 0;
+        for (int k = first; k < iterations; k++) {
+            double stepSize = step / Math.pow(k + 1 + stability, STEP_DECAY);
+            double delta = perturbation / Math.pow(k + 1, PERTURBATION_DECAY);
+
+            // Everything random in iteration k comes from (seed, k), so a resumed run replays it exactly
+            SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + k);
+            double[] signs = new double[dimensions];
+            double[] plus = new double[dimensions];
+            double[] minus = new double[dimensions];
+            for (int i = 0; i < dimensions; i++) {
+                signs[i] = random.nextBoolean() ? 1 : -1;
+                plus[i] = clamp(scale[i] + delta * signs[i]);
+                minus[i] = clamp(scale[i] - delta * signs[i]);
+            }
+            long[] openings = new long[gamesPerSide];
+            for (int g = 0; g < gamesPerSide; g++) {
+                openings[g] = random.nextLong();
+            }
+
+            double[] results = playMatch(weights(plus), weights(minus), openings, pool);
+            gamesPlayed += 2L * gamesPerSide;
+            for (int i = 0; i < dimensions; i++) {
+                // Clamping can shrink the perturbation, so divide by the distance actually used
+                double spread = plus[i] - minus[i];
+                if (spread != 0) {
+                    scale[i] = clamp(scale[i] + stepSize * (results[0] - results[1]) / spread);
+                }
+            }
+
+            System.out.printf("%s iteration %d: %.4f vs %.4f, %.0f games/s, %s%n", player, k + 1, results[0],
+                    results[1], gamesPlayed * 1e9 / (System.nanoTime() - start), weights(scale));
+            if ((k + 1) % CHECKPOINT_INTERVAL == 0 || k + 1 == iterations) {
+                writeCheckpoint(checkpoint, k + 1, scale);
+            }
+        }
+        return weights(scale);
+    }
+
+    /**
+     * Plays the tuned weights against the defaults on openings neither has been tuned on,
+     * and saves whichever covered more of the board on average.
+     */
+    public void writeBest(EvaluationWeights tuned, Path path, ExecutorService pool)
+            throws IOException, InterruptedException {
+        SplittableRandom random = new SplittableRandom(~seed);
+        long[] openings = new long[gamesPerSide * VALIDATION_FACTOR];
+        for (int g = 0; g < openings.length; g++) {
+            openings[g] = random.nextLong();
+        }
+        double[] results = playMatch(tuned, defaults, openings, pool);
+        System.out.printf("Validation over %d games per side: tuned %.4f, defaults %.4f%n", openings.length,
+                results[0], results[1]);
+
+        EvaluationWeights best = results[0] > results[1] ? tuned : defaults;
+        best.save(path, String.format("%s weights from WeightTuner: mean coverage %.4f (defaults %.4f)",
+                player, Math.max(results[0], results[1]), results[1]));
+        System.out.println((best == tuned ? "Tuned" : "Default") + " weights written to " + path);
+    }
+
+    // Mean coverage of each side over the same openings, {first, second}
+    private double[] playMatch(EvaluationWeights first, EvaluationWeights second, long[] openings,
+            ExecutorService pool) throws InterruptedException {
+        List<Future<Double>> firstGames = new ArrayList<>(openings.length);
+        List<Future<Double>> secondGames = new ArrayList<>(openings.length);
+        for (int g = 0; g < openings.length; g++) {
+            int size = sizes[g % sizes.length];
+            long opening = openings[g];
+            firstGames.add(pool.submit(() -> play(first, size, opening)));
+            secondGames.add(pool.submit(() -> play(second, size, opening)));
+        }
+        return new double[] {mean(firstGames), mean(secondGames)};
+    }
+
+    // Plays one game from a random opening and returns the share of the board covered
+    private double play(EvaluationWeights weights, int size, long opening) {
+        Board board = new Board(size);
+        Random random = new Random(opening);
+        for (int i = 0; i < OPENING_MOVES && !board.isGameOver(); i++) {
+            List<Move> moves = board.getPossibleMoves();
+            board.applyMove(moves.get(random.nextInt(moves.size())));
+        }
+        Player game = factory.create(board, weights);
+        while (!board.isGameOver()) {
+            Move move = game.nextMove();
+            if (move == null || !board.applyMove(move)) {
+                break;
+            }
+        }
+        return (double) board.getScore() / (size * size);
+    }
+
+    private static double mean(List<Future<Double>> games) throws InterruptedException {
+        double sum = 0;
+        for (Future<Double> game : games) {
+            try {
+                sum += game.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Tuning game failed", e.getCause());
+            }
+        }
+        return sum / games.size();
+    }
+
+    private EvaluationWeights weights(double[] scale) {
+        double[] values = defaults.values();
+        for (int i = 0; i < values.length; i++) {
+            values[i] *= scale[i];
+        }
+        return defaults.withValues(values);
+    }
+
+    private static double clamp(double scale) {
+        return Math.max(0, Math.min(MAX_SCALE, scale));
+    }
+
+    // Reads the scales into scale and returns the number of iterations done
+    private int readCheckpoint(Path path, double[] scale) throws IOException {
+        Properties checkpoint = new Properties();
+        try (Reader in = Files.newBufferedReader(path)) {
+            checkpoint.load(in);
+        }
+        if (!player.equals(checkpoint.getProperty("player"))) {
+            throw new IOException(path + " is a checkpoint for " + checkpoint.getProperty("player"));
+        }
+        for (int i = 0; i < scale.length; i++) {
+            String value = checkpoint.getProperty("scale." + defaults.name(i));
+            if (value != null) {
+                scale[i] = Double.parseDouble(value);
+            }
+        }
+        return Integer.parseInt(checkpoint.getProperty("iteration", "0"));
+    }
+
+    // Written to a temporary file first and then moved over the old one, so a killed run leaves a usable checkpoint
+    private void writeCheckpoint(Path path, int iteration, double[] scale) throws IOException {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("player", player);
+        checkpoint.setProperty("iteration", Integer.toString(iteration));
+        for (int i = 0; i < scale.length; i++) {
+            checkpoint.setProperty("scale." + defaults.name(i), Double.toString(scale[i]));
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temporary)) {
+            checkpoint.store(out, "WeightTuner checkpoint: weights are scale * default");
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,72 @@
+package players;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Random 64-bit keys for Zobrist hashing of a position: one key per visited cell and
+ * one per player cell. A position's hash is the XOR of the keys that apply, so a move
+ * updates it with three XORs. Keys depend only on the board size (fixed seed), which
+ * keeps hashes stable across runs.
+ *
+ * The square board has 8 symmetries (rotations and reflections). For each of them the
+ * keys are also stored as seen through the symmetry: hashing a position with
+ * symmetricVisited[t] and symmetricPlayer[t] gives the hash of its image under t, so a
+ * BitBoard can keep the hashes of all images up to date with the same three XORs each.
+ */
+public final class ZobristKeys {
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final ConcurrentHashMap<Integer, ZobristKeys> BY_SIZE = new ConcurrentHashMap<>();
+
+    // Symmetry t transposes the board if bit 0 is set, then flips rows if bit 1, then columns if bit 2
+    static final int SYMMETRIES = 8;
+
+    final long[] visited;
+    final long[] player;
+    // [t][cell]: the key of the cell that symmetry t maps cell to; t = 0 is the identity
+    final long[][] symmetricVisited;
+    final long[][] symmetricPlayer;
+
+    private ZobristKeys(int size) {
+        SplittableRandom random = new SplittableRandom(SEED ^ size);
+        int cells = size * size;
+        this.visited = new long[cells];
+        this.player = new long[cells];
+        for (int i = 0; i < cells; i++) {
+            visited[i] = random.nextLong();
+            player[i] = random.nextLong();
+        }
+
+        this.symmetricVisited = new long[SYMMETRIES][cells];
+        this.symmetricPlayer = new long[SYMMETRIES][cells];
+        for (int t = 0; t < SYMMETRIES; t++) {
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    int image = transform(t, r, c, size);
+                    symmetricVisited[t][r * size + c] = visited[image];
+                    symmetricPlayer[t][r * size + c] = player[image];
+                }
+            }
+        }
+    }
+
+    // Cell that symmetry t maps (row, col) to
+    static int transform(int t, int row, int col, int size) {
+        if ((t & 1) != 0) {
+            int swap = row;
+            row = col;
+            col = swap;
+        }
+        if ((t & 2) != 0) {
+            row = size - 1 - row;
+        }
+        if ((t & 4) != 0) {
+            col = size - 1 - col;
+        }
+        return row * size + col;
+    }
+
+    public static ZobristKeys forSize(int size) {
+        return BY_SIZE.computeIfAbsent(size, ZobristKeys::new);
+    }
+}
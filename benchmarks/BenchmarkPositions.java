@@ -0,0 +1,44 @@
+package players;
+import game.*;
+
+import java.util.Random;
+
+/**
+ * Fixed positions for the benchmarks: a fresh board of the given size after a seeded
+ * walk, so every run and every code version measures the same positions. The walk
+ * follows Warnsdorff's rule (fewest onward moves, random tie-break); a purely random
+ * walk gets stuck long before mid-game on large boards.
+ */
+final class BenchmarkPositions {
+    private BenchmarkPositions() {
+    }
+
+    static Board position(int size, int movesPlayed, long seed) {
+        Board board = new Board(size);
+        Random random = new Random(seed);
+        for (int i = 0; i < movesPlayed && !board.isGameOver(); i++) {
+            Move chosen = null;
+            int fewest = Integer.MAX_VALUE;
+            int ties = 0;
+            for (Move move : board.getPossibleMoves()) {
+                Board next = new Board(board);
+                next.applyMove(move);
+                int onward = next.getPossibleMoves().size();
+                if (onward < fewest) {
+                    fewest = onward;
+                    chosen = move;
+                    ties = 1;
+                } else if (onward == fewest && random.nextInt(++ties) == 0) {
+                    chosen = move;
+                }
+            }
+            board.applyMove(chosen);
+        }
+        return board;
+    }
+
+    // A quarter of the board visited: early enough that the search trees are still wide
+    static Board midgame(int size) {
+        return position(size, size * size / 4, 42);
+    }
+}
@@ -0,0 +1,22 @@
+package players;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary JMH results: nodes (or rollouts) done per benchmark call are added here,
+ * and JMH reports them as a rate next to the call rate, e.g. nodes/s.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class NodeCounters {
+    public long nodes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        nodes = 0;
+    }
+}
@@ -0,0 +1,68 @@
+package players;
+import game.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Monte Carlo kernels: a single random playout (the call rate is rollouts/s, the nodes
+ * counter moves/s) and a time slice of MCTS on a fixed position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RolloutBenchmark {
+    @Param({"8", "16", "30"})
+    public int size;
+
+    private BitBoard root;
+    private BitBoard scratch;
+    private SplittableRandom random;
+    private Board board;
+    private MctsTree tree;
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.midgame(size);
+        MoveTable table = MoveTable.forBoard(board);
+        root = new BitBoard(board, table);
+        scratch = new BitBoard(table);
+        random = new SplittableRandom(42);
+        tree = new MctsTree(table, 1 << 16);
+    }
+
+    // The playout loop of Player12345 and Player20220808025
+    @Benchmark
+    public int rollout(NodeCounters counters) {
+        scratch.copyFrom(root);
+        int score = RolloutEngine.rollout(scratch, random);
+        counters.nodes += score - root.getScore();
+        return score;
+    }
+
+    // 10 ms of tree search from an empty tree on the fixed position; the nodes counter gives playouts/s
+    @Benchmark
+    public int mcts(NodeCounters counters) {
+        // Otherwise setRoot() would keep the previous call's tree, which grows until the pool is full
+        tree.clear();
+        tree.setRoot(board);
+        tree.search(System.nanoTime() + 10_000_000L);
+        counters.nodes += tree.stats().getRollouts();
+        return tree.bestDirection();
+    }
+}
@@ -0,0 +1,80 @@
+package players;
+import game.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Search kernels of the players on fixed mid-game positions. Each benchmark is one
+ * fixed-depth search (or one evaluation) without a time limit, so scores are comparable
+ * between code versions; the nodes counter gives nodes/s. Run with -prof gc to get the
+ * allocation rate, and divide gc.alloc.rate.norm by the nodes per call for bytes per node.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({"8", "16", "30"})
+    public int size;
+
+    @Param({"4"})
+    public int depth;
+
+    private MinimaxSearch minimax;
+    private Player16073 player16073;
+    private Player10000 player10000;
+
+    @Setup
+    public void setUp() {
+        Board board = BenchmarkPositions.midgame(size);
+        minimax = new MinimaxSearch(MoveTable.forBoard(board));
+        minimax.setRoot(board);
+        // Fixed-depth mode: default weights, no helper threads and no pondering next to the measured thread
+        player16073 = new Player16073(board, Player16073.DEFAULT_WEIGHTS, depth);
+        player10000 = new Player10000(board);
+        player10000.loadState();
+    }
+
+    // The look-ahead of Player1607, Player1111 and Player20220808025
+    @Benchmark
+    public int minimax(NodeCounters counters) {
+        long before = minimax.stats().getNodes();
+        int direction = minimax.bestMove(depth, -1);
+        counters.nodes += minimax.stats().getNodes() - before;
+        return direction;
+    }
+
+    // Alpha-beta with transposition table, move ordering and full evaluation at the leaves
+    @Benchmark
+    public double lookAhead16073(NodeCounters counters) {
+        double score = player16073.searchFixedDepth(depth);
+        counters.nodes += player16073.lastMoveStats().getNodes();
+        return score;
+    }
+
+    // One evaluation of the current position; the call rate is evaluations/s
+    @Benchmark
+    public double evaluate10000() {
+        return player10000.evaluatePosition();
+    }
+
+    // Player10000's selective look-ahead below one position
+    @Benchmark
+    public double lookAhead10000() {
+        return player10000.lookAhead(0, depth);
+    }
+}